@@ -1,6 +1,7 @@
 package com.xhs.ai;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface AIAdapter {
 
@@ -12,6 +13,17 @@ public interface AIAdapter {
      */
     String generateContent(String prompt, Map<String, Object> params) throws Exception;
 
+    /**
+     * 流式生成内容，每收到一段增量文本回调一次
+     * 默认实现一次性返回完整结果，支持流式输出的服务商应覆盖此方法
+     * @param prompt 提示词
+     * @param params 额外参数
+     * @param onChunk 增量文本回调
+     */
+    default void streamContent(String prompt, Map<String, Object> params, Consumer<String> onChunk) throws Exception {
+        onChunk.accept(generateContent(prompt, params));
+    }
+
     /**
      * 获取AI模型名称
      * @return AI模型名称
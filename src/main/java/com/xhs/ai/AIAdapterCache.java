@@ -0,0 +1,146 @@
+package com.xhs.ai;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * AI适配器缓存
+ * 按 服务商类型 + API密钥指纹 复用适配器实例，容量有上限（LRU淘汰），长时间未使用的实例会被清除
+ */
+public class AIAdapterCache {
+
+    private static final int DEFAULT_MAX_SIZE = 64;
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private static class Entry {
+        private final AIAdapter adapter;
+        private long lastAccessTime;
+
+        private Entry(AIAdapter adapter, long lastAccessTime) {
+            this.adapter = adapter;
+            this.lastAccessTime = lastAccessTime;
+        }
+    }
+
+    // accessOrder=true，迭代顺序即最近最少使用顺序
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+    private volatile long idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+
+    /**
+     * 获取缓存的适配器，不存在时创建
+     * @param providerType 提供商类型
+     * @param apiKey API密钥
+     * @param creator 适配器创建方法
+     * @return AI适配器实例
+     */
+    public AIAdapter get(String providerType, String apiKey, Supplier<AIAdapter> creator) {
+        String key = providerType + ":" + fingerprint(apiKey);
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            evictIdle(now);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.lastAccessTime = now;
+                return entry.adapter;
+            }
+        }
+
+        // 在锁外创建，避免阻塞其他请求
+        AIAdapter adapter = creator.get();
+
+        synchronized (entries) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                existing.lastAccessTime = now;
+                return existing.adapter;
+            }
+            entries.put(key, new Entry(adapter, now));
+            while (entries.size() > maxSize) {
+                Iterator<String> iterator = entries.keySet().iterator();
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return adapter;
+    }
+
+    /**
+     * 清除指定服务商的缓存
+     * @param providerType 提供商类型
+     */
+    public void invalidate(String providerType) {
+        String prefix = providerType + ":";
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 当前缓存的适配器数量
+     * @return 缓存数量
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * 清除空闲超时的实例，调用方需持有锁
+     */
+    private void evictIdle(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.lastAccessTime < idleTimeoutMs) {
+                // 按访问顺序排列，后面的都更新
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 计算API密钥指纹，缓存中不保存明文密钥
+     */
+    private static String fingerprint(String apiKey) {
+        if (apiKey == null) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+}
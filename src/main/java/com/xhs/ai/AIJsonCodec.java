@@ -0,0 +1,135 @@
+package com.xhs.ai;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.EntityTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * AI请求/响应JSON编解码
+ * 基于Jackson流式API：请求体直接写入HTTP输出流，响应只拉取需要的字段，不构建完整的JSON树
+ */
+public final class AIJsonCodec {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    /**
+     * 请求体写入函数
+     */
+    @FunctionalInterface
+    public interface JsonBodyWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+
+    private AIJsonCodec() {
+    }
+
+    /**
+     * 创建JSON请求实体，发送时直接序列化到连接输出流
+     * @param writer 请求体写入函数
+     * @return HTTP实体
+     */
+    public static HttpEntity jsonEntity(JsonBodyWriter writer) {
+        return new EntityTemplate(-1, ContentType.APPLICATION_JSON, null, outputStream -> {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8)) {
+                writer.write(generator);
+            }
+        });
+    }
+
+    /**
+     * 从响应流中读取指定路径的字符串值
+     * @param inputStream 响应流
+     * @param path 路径，字符串表示字段名，整数表示数组下标，如 "choices", 0, "message", "content"
+     * @return 字段值，不存在时返回null
+     */
+    public static String readString(InputStream inputStream, Object... path) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            return readString(parser, path);
+        }
+    }
+
+    /**
+     * 从JSON字符串中读取指定路径的字符串值
+     * @param json JSON字符串
+     * @param path 路径
+     * @return 字段值，不存在时返回null
+     */
+    public static String readString(String json, Object... path) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return readString(parser, path);
+        }
+    }
+
+    /**
+     * 将参数值转换为数字
+     * @param value 参数值（数字或数字字符串）
+     * @return 数字值
+     */
+    public static double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    private static String readString(JsonParser parser, Object[] path) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        return find(parser, token, path, 0);
+    }
+
+    /**
+     * 在当前值中查找路径，找到后立即返回，其余部分直接跳过
+     */
+    private static String find(JsonParser parser, JsonToken token, Object[] path, int depth) throws IOException {
+        if (depth == path.length) {
+            return token.isScalarValue() && token != JsonToken.VALUE_NULL ? parser.getText() : null;
+        }
+
+        Object segment = path[depth];
+        if (segment instanceof String fieldName) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                if (fieldName.equals(name)) {
+                    return find(parser, valueToken, path, depth + 1);
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+
+        int index = (Integer) segment;
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        int current = 0;
+        JsonToken elementToken;
+        while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY && elementToken != null) {
+            if (current == index) {
+                return find(parser, elementToken, path, depth + 1);
+            }
+            parser.skipChildren();
+            current++;
+        }
+        return null;
+    }
+}
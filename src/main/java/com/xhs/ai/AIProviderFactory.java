@@ -1,10 +1,21 @@
 package com.xhs.ai;
 
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AIProviderFactory {
 
+    /**
+     * 适配器构造函数
+     */
+    @FunctionalInterface
+    public interface AdapterCreator {
+        AIAdapter create(String apiKey, CloseableHttpClient httpClient);
+    }
+
     /**
      * AI服务提供商信息
      */
@@ -13,12 +24,15 @@ public class AIProviderFactory {
         private final String description;
         private final Class<? extends AIAdapter> adapterClass;
         private final String website;
+        private final AdapterCreator creator;
 
-        public ProviderInfo(String name, String description, Class<? extends AIAdapter> adapterClass, String website) {
+        public ProviderInfo(String name, String description, Class<? extends AIAdapter> adapterClass, String website,
+                            AdapterCreator creator) {
             this.name = name;
             this.description = description;
             this.adapterClass = adapterClass;
             this.website = website;
+            this.creator = creator;
         }
 
         public String getName() {
@@ -41,47 +55,116 @@ public class AIProviderFactory {
     /**
      * 支持的AI服务提供商列表
      */
-    private static final Map<String, ProviderInfo> PROVIDERS = new HashMap<>();
+    private static final Map<String, ProviderInfo> PROVIDERS = new ConcurrentHashMap<>();
+
+    /**
+     * 已创建的适配器缓存（按服务商 + API密钥指纹复用）
+     */
+    private static final AIAdapterCache ADAPTER_CACHE = new AIAdapterCache();
+
+    /**
+     * 所有适配器共享的HTTP客户端（由Spring配置注入）
+     */
+    private static volatile CloseableHttpClient httpClient;
 
     static {
         // 注册Kimi AI
-        PROVIDERS.put("kimi", new ProviderInfo(
+        registerProvider("kimi", new ProviderInfo(
                 "Kimi AI",
                 "月之暗面Kimi大模型",
                 KimiAdapter.class,
-                "https://platform.moonshot.cn/"
+                "https://platform.moonshot.cn/",
+                KimiAdapter::new
         ));
 
         // 注册通义千问
-        PROVIDERS.put("qwen", new ProviderInfo(
+        registerProvider("qwen", new ProviderInfo(
                 "通义千问",
                 "阿里云通义千问大模型",
                 QwenAdapter.class,
-                "https://dashscope.aliyun.com/"
+                "https://dashscope.aliyun.com/",
+                QwenAdapter::new
         ));
     }
 
     /**
-     * 创建AI服务实例
+     * 注册AI服务提供商，已存在的同名服务商会被替换
+     * @param providerType 提供商类型
+     * @param providerInfo 提供商信息
+     */
+    public static void registerProvider(String providerType, ProviderInfo providerInfo) {
+        if (providerType == null || providerType.isBlank()) {
+            throw new IllegalArgumentException("AI服务商类型不能为空");
+        }
+        if (providerInfo == null || providerInfo.creator == null) {
+            throw new IllegalArgumentException("AI服务商信息不完整: " + providerType);
+        }
+        PROVIDERS.put(providerType, providerInfo);
+        ADAPTER_CACHE.invalidate(providerType);
+    }
+
+    /**
+     * 获取AI服务实例，优先复用缓存中的适配器
      * @param providerType 提供商类型
      * @param apiKey API密钥
      * @return AI适配器实例
      */
-    public static AIAdapter createProvider(String providerType, String apiKey) {
+    public static AIAdapter getProvider(String providerType, String apiKey) {
         if (!PROVIDERS.containsKey(providerType)) {
             throw new IllegalArgumentException("不支持的AI服务商: " + providerType);
         }
+        return ADAPTER_CACHE.get(providerType, apiKey, () -> createProvider(providerType, apiKey));
+    }
 
+    /**
+     * 创建AI服务实例
+     * @param providerType 提供商类型
+     * @param apiKey API密钥
+     * @return AI适配器实例
+     */
+    public static AIAdapter createProvider(String providerType, String apiKey) {
         ProviderInfo providerInfo = PROVIDERS.get(providerType);
-        Class<? extends AIAdapter> adapterClass = providerInfo.getAdapterClass();
+        if (providerInfo == null) {
+            throw new IllegalArgumentException("不支持的AI服务商: " + providerType);
+        }
 
         try {
-            return adapterClass.getConstructor(String.class).newInstance(apiKey);
+            return providerInfo.creator.create(apiKey, getHttpClient());
         } catch (Exception e) {
             throw new RuntimeException("创建AI服务实例失败: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * 获取适配器缓存
+     * @return 适配器缓存
+     */
+    public static AIAdapterCache getAdapterCache() {
+        return ADAPTER_CACHE;
+    }
+
+    /**
+     * 设置共享HTTP客户端
+     * @param client 带连接池的HTTP客户端
+     */
+    public static void setHttpClient(CloseableHttpClient client) {
+        httpClient = client;
+        // 已缓存的适配器持有旧客户端，需要重新创建
+        ADAPTER_CACHE.clear();
+    }
+
+    /**
+     * 获取共享HTTP客户端
+     * @return 带连接池的HTTP客户端
+     */
+    public static CloseableHttpClient getHttpClient() {
+        CloseableHttpClient client = httpClient;
+        if (client == null) {
+            throw new IllegalStateException("AI HTTP客户端未初始化");
+        }
+        return client;
+    }
+
     /**
      * 获取服务商信息
      * @param providerType 提供商类型
@@ -107,4 +190,4 @@ public class AIProviderFactory {
     public static boolean isProviderSupported(String providerType) {
         return PROVIDERS.containsKey(providerType);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.xhs.ai;
+
+/**
+ * AI服务提供商注册接口
+ * 实现该接口并声明为Spring Bean，即可在启动时注册新的AI服务商，无需修改 AIProviderFactory
+ */
+public interface AIProviderRegistrar {
+
+    /**
+     * 获取提供商类型
+     * @return 提供商类型，如 kimi、qwen
+     */
+    String getProviderType();
+
+    /**
+     * 获取提供商信息
+     * @return 提供商信息
+     */
+    AIProviderFactory.ProviderInfo getProviderInfo();
+}
@@ -0,0 +1,37 @@
+package com.xhs.ai;
+
+import java.io.IOException;
+
+/**
+ * AI服务商限流异常（HTTP 429）
+ */
+public class AIRateLimitException extends IOException {
+
+    // 服务商建议的重试等待时间（毫秒），未提供时为-1
+    private final long retryAfterMs;
+
+    public AIRateLimitException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    /**
+     * 解析 Retry-After 响应头（秒）
+     * @param headerValue 响应头值
+     * @return 毫秒，无法解析时返回-1
+     */
+    public static long parseRetryAfter(String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(headerValue.trim()) * 1000L;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
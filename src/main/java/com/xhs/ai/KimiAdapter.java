@@ -3,55 +3,81 @@ package com.xhs.ai;
 import lombok.Getter;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.ParseException;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class KimiAdapter implements AIAdapter {
 
     private static final String API_URL = "https://api.moonshot.cn/v1/chat/completions";
     private static final String MODEL_NAME = "kimi";
-    
+
     @Getter
     private final String apiKey;
+    private final CloseableHttpClient httpClient;
 
-    public KimiAdapter(String apiKey) {
+    public KimiAdapter(String apiKey, CloseableHttpClient httpClient) {
         this.apiKey = apiKey;
+        this.httpClient = httpClient;
     }
 
     @Override
     public String generateContent(String prompt, Map<String, Object> params) throws Exception {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPost httpPost = new HttpPost(API_URL);
-            
-            // 设置请求头
-            httpPost.setHeader("Authorization", "Bearer " + apiKey);
-            httpPost.setHeader("Content-Type", "application/json");
-            
-            // 构建请求体
-            String model = (String) params.getOrDefault("model", "moonshot-v1-8k");
-            String temperature = params.getOrDefault("temperature", 0.3).toString();
-            
-            String requestBody = String.format("{\"model\": \"%s\",\"messages\": [{\"role\": \"user\",\"content\": \"%s\"}],\"temperature\": %s}", model, prompt, temperature);
-            
-            httpPost.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
-            
-            // 发送请求
-            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    String result = EntityUtils.toString(entity);
-                    // 解析结果，提取content
-                    return parseKimiResponse(result);
-                }
-                throw new Exception("Kimi AI response is empty");
+        HttpPost httpPost = buildRequest(prompt, params, false);
+
+        // 发送请求（连接由共享连接池复用），只从响应流中拉取 choices[0].message.content
+        String result = httpClient.execute(httpPost, response -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return null;
             }
+            checkResponse(response, entity);
+            return AIJsonCodec.readString(entity.getContent(), "choices", 0, "message", "content");
+        });
+        if (result == null) {
+            throw new Exception("Kimi AI response is empty");
         }
+        return result;
+    }
+
+    @Override
+    public void streamContent(String prompt, Map<String, Object> params, Consumer<String> onChunk) throws Exception {
+        HttpPost httpPost = buildRequest(prompt, params, true);
+
+        // 以SSE方式逐行读取增量结果
+        httpClient.execute(httpPost, response -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new IOException("Kimi AI response is empty");
+            }
+            checkResponse(response, entity);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("data:")) {
+                        continue;
+                    }
+                    String data = line.substring(5).trim();
+                    if ("[DONE]".equals(data)) {
+                        break;
+                    }
+                    String delta = AIJsonCodec.readString(data, "choices", 0, "delta", "content");
+                    if (delta != null && !delta.isEmpty()) {
+                        onChunk.accept(delta);
+                    }
+                }
+            }
+            return null;
+        });
     }
 
     @Override
@@ -65,7 +91,7 @@ public class KimiAdapter implements AIAdapter {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             return false;
         }
-        
+
         try {
             String testPrompt = "Hello";
             String result = generateContent(testPrompt, Map.of("model", "moonshot-v1-8k", "temperature", 0.0));
@@ -76,11 +102,40 @@ public class KimiAdapter implements AIAdapter {
         }
     }
 
-    private String parseKimiResponse(String response) throws Exception {
-        // 简单解析JSON响应，提取content
-        int contentStart = response.indexOf("\"content\":") + 11;
-        int contentEnd = response.indexOf("\"", contentStart);
-        // 处理转义字符
-        return response.substring(contentStart, contentEnd).replace("\\n", "\n").replace("\\\"", "\"");
+    private HttpPost buildRequest(String prompt, Map<String, Object> params, boolean stream) {
+        HttpPost httpPost = new HttpPost(API_URL);
+
+        // 设置请求头
+        httpPost.setHeader("Authorization", "Bearer " + apiKey);
+
+        // 构建请求体（发送时直接序列化，提示词中的引号、换行会被正确转义）
+        String model = (String) params.getOrDefault("model", "moonshot-v1-8k");
+        double temperature = AIJsonCodec.toDouble(params.getOrDefault("temperature", 0.3));
+
+        httpPost.setEntity(AIJsonCodec.jsonEntity(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("model", model);
+            generator.writeArrayFieldStart("messages");
+            generator.writeStartObject();
+            generator.writeStringField("role", "user");
+            generator.writeStringField("content", prompt);
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeNumberField("temperature", temperature);
+            generator.writeBooleanField("stream", stream);
+            generator.writeEndObject();
+        }));
+        return httpPost;
+    }
+
+    private void checkResponse(ClassicHttpResponse response, HttpEntity entity) throws IOException, ParseException {
+        if (response.getCode() == 429) {
+            Header retryAfter = response.getFirstHeader("Retry-After");
+            throw new AIRateLimitException("Kimi AI请求被限流: " + EntityUtils.toString(entity),
+                    AIRateLimitException.parseRetryAfter(retryAfter != null ? retryAfter.getValue() : null));
+        }
+        if (response.getCode() >= 400) {
+            throw new IOException("Kimi AI请求失败: " + response.getCode() + " " + EntityUtils.toString(entity));
+        }
     }
-}
\ No newline at end of file
+}
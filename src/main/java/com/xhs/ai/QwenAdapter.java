@@ -3,55 +3,86 @@ package com.xhs.ai;
 import lombok.Getter;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.ParseException;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class QwenAdapter implements AIAdapter {
 
     private static final String API_URL = "https://dashscope.aliyuncs.com/api/v1/services/aigc/text-generation/generation";
     private static final String MODEL_NAME = "qwen";
-    
+
     @Getter
     private final String apiKey;
+    private final CloseableHttpClient httpClient;
 
-    public QwenAdapter(String apiKey) {
+    public QwenAdapter(String apiKey, CloseableHttpClient httpClient) {
         this.apiKey = apiKey;
+        this.httpClient = httpClient;
     }
 
     @Override
     public String generateContent(String prompt, Map<String, Object> params) throws Exception {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpPost httpPost = new HttpPost(API_URL);
-            
-            // 设置请求头
-            httpPost.setHeader("Authorization", "Bearer " + apiKey);
-            httpPost.setHeader("Content-Type", "application/json");
-            
-            // 构建请求体
-            String model = (String) params.getOrDefault("model", "qwen-turbo");
-            String temperature = params.getOrDefault("temperature", 0.3).toString();
-            
-            String requestBody = String.format("{\"model\": \"%s\",\"input\": {\"prompt\": \"%s\"},\"parameters\": {\"temperature\": %s}}" , model, prompt, temperature);
-            
-            httpPost.setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
-            
-            // 发送请求
-            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-                HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    String result = EntityUtils.toString(entity);
-                    // 解析结果，提取content
-                    return parseQwenResponse(result);
-                }
-                throw new Exception("Qwen AI response is empty");
+        HttpPost httpPost = buildRequest(prompt, params, false);
+
+        // 发送请求（连接由共享连接池复用），只从响应流中拉取 output.text
+        String result = httpClient.execute(httpPost, response -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return null;
             }
+            checkResponse(response, entity);
+            return AIJsonCodec.readString(entity.getContent(), "output", "text");
+        });
+        if (result == null) {
+            throw new Exception("Qwen AI response is empty");
         }
+        return result;
+    }
+
+    @Override
+    public void streamContent(String prompt, Map<String, Object> params, Consumer<String> onChunk) throws Exception {
+        HttpPost httpPost = buildRequest(prompt, params, true);
+
+        // 以SSE方式逐行读取增量结果（incremental_output模式下每个事件只包含新增文本）
+        httpClient.execute(httpPost, response -> {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new IOException("Qwen AI response is empty");
+            }
+            checkResponse(response, entity);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+                String line;
+                String eventType = null;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("event:")) {
+                        eventType = line.substring(6).trim();
+                        continue;
+                    }
+                    if (!line.startsWith("data:")) {
+                        continue;
+                    }
+                    String data = line.substring(5).trim();
+                    if ("error".equals(eventType)) {
+                        throw new IOException("Qwen AI请求失败: " + AIJsonCodec.readString(data, "message"));
+                    }
+                    String delta = AIJsonCodec.readString(data, "output", "text");
+                    if (delta != null && !delta.isEmpty()) {
+                        onChunk.accept(delta);
+                    }
+                }
+            }
+            return null;
+        });
     }
 
     @Override
@@ -70,12 +101,42 @@ public class QwenAdapter implements AIAdapter {
         }
     }
 
-    private String parseQwenResponse(String response) throws Exception {
-        // 简单解析JSON响应，提取output.text
-        int outputStart = response.indexOf("\"output\":") + 9;
-        int textStart = response.indexOf("\"text\":", outputStart) + 8;
-        int textEnd = response.indexOf("\"", textStart);
-        // 处理转义字符
-        return response.substring(textStart, textEnd).replace("\\n", "\n").replace("\\\"", "\"");
+    private HttpPost buildRequest(String prompt, Map<String, Object> params, boolean stream) {
+        HttpPost httpPost = new HttpPost(API_URL);
+
+        // 设置请求头
+        httpPost.setHeader("Authorization", "Bearer " + apiKey);
+        if (stream) {
+            httpPost.setHeader("X-DashScope-SSE", "enable");
+        }
+
+        // 构建请求体（发送时直接序列化，提示词中的引号、换行会被正确转义）
+        String model = (String) params.getOrDefault("model", "qwen-turbo");
+        double temperature = AIJsonCodec.toDouble(params.getOrDefault("temperature", 0.3));
+
+        httpPost.setEntity(AIJsonCodec.jsonEntity(generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("model", model);
+            generator.writeObjectFieldStart("input");
+            generator.writeStringField("prompt", prompt);
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("parameters");
+            generator.writeNumberField("temperature", temperature);
+            generator.writeBooleanField("incremental_output", stream);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }));
+        return httpPost;
+    }
+
+    private void checkResponse(ClassicHttpResponse response, HttpEntity entity) throws IOException, ParseException {
+        if (response.getCode() == 429) {
+            Header retryAfter = response.getFirstHeader("Retry-After");
+            throw new AIRateLimitException("Qwen AI请求被限流: " + EntityUtils.toString(entity),
+                    AIRateLimitException.parseRetryAfter(retryAfter != null ? retryAfter.getValue() : null));
+        }
+        if (response.getCode() >= 400) {
+            throw new IOException("Qwen AI请求失败: " + response.getCode() + " " + EntityUtils.toString(entity));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,248 @@
+package com.xhs.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 关键词多模式匹配自动机（Aho–Corasick）
+ * 构建一次后只读、线程安全；一次扫描即可找出文本中出现的所有关键词，耗时与文本长度成正比，与关键词数量无关。
+ * 匹配时按字符忽略大小写，同时记录是否按原始大小写出现。
+ * 状态转移以有序数组存储（二分查找），数万个关键词时内存占用也较小
+ */
+public final class KeywordAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final String[] keywords;
+    private final Map<String, Integer> keywordIds;
+
+    // 按状态编号存储：转移字符（有序）、目标状态、失败链接、输出的关键词编号（已合并失败链）
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    /**
+     * @param keywords 关键词集合（重复的会被合并，编号按首次出现顺序分配）
+     */
+    public KeywordAutomaton(Collection<String> keywords) {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.isEmpty()) {
+                ids.putIfAbsent(keyword, ids.size());
+            }
+        }
+        this.keywordIds = Map.copyOf(ids);
+        this.keywords = ids.keySet().toArray(new String[0]);
+
+        // 构建字典树
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<int[]> trieOutputs = new ArrayList<>();
+        trie.add(new HashMap<>());
+        trieOutputs.add(NO_OUTPUT);
+        for (int id = 0; id < this.keywords.length; id++) {
+            String keyword = this.keywords[id];
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = Character.toLowerCase(keyword.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    trieOutputs.add(NO_OUTPUT);
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            trieOutputs.set(state, append(trieOutputs.get(state), id));
+        }
+
+        // 转为紧凑的有序数组
+        int stateCount = trie.size();
+        this.labels = new char[stateCount][];
+        this.targets = new int[stateCount][];
+        this.fail = new int[stateCount];
+        this.outputs = trieOutputs.toArray(new int[0][]);
+        for (int state = 0; state < stateCount; state++) {
+            Map<Character, Integer> edges = trie.get(state);
+            char[] chars = new char[edges.size()];
+            int index = 0;
+            for (char c : edges.keySet()) {
+                chars[index++] = c;
+            }
+            Arrays.sort(chars);
+            int[] next = new int[chars.length];
+            for (int i = 0; i < chars.length; i++) {
+                next[i] = edges.get(chars[i]);
+            }
+            labels[state] = chars;
+            targets[state] = next;
+        }
+
+        buildFailureLinks();
+    }
+
+    /**
+     * 扫描文本，返回命中的关键词
+     * @param text 文本内容
+     * @return 命中结果
+     */
+    public Hits match(String text) {
+        BitSet seen = new BitSet(keywords.length);
+        BitSet exact = new BitSet(keywords.length);
+        int[] order = new int[8];
+        int hitCount = 0;
+        int state = ROOT;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = step(state, c)) < 0 && state != ROOT) {
+                state = fail[state];
+            }
+            state = next < 0 ? ROOT : next;
+
+            for (int id : outputs[state]) {
+                if (!seen.get(id)) {
+                    seen.set(id);
+                    if (hitCount == order.length) {
+                        order = Arrays.copyOf(order, hitCount * 2);
+                    }
+                    order[hitCount++] = id;
+                }
+                if (!exact.get(id)) {
+                    String keyword = keywords[id];
+                    if (text.regionMatches(i - keyword.length() + 1, keyword, 0, keyword.length())) {
+                        exact.set(id);
+                    }
+                }
+            }
+        }
+        return new Hits(Arrays.copyOf(order, hitCount), seen, exact);
+    }
+
+    /**
+     * 获取关键词编号
+     * @param keyword 关键词
+     * @return 编号，不存在时返回-1
+     */
+    public int idOf(String keyword) {
+        Integer id = keywordIds.get(keyword);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 根据编号获取关键词
+     */
+    public String keyword(int id) {
+        return keywords[id];
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    /**
+     * 一次扫描的命中结果
+     */
+    public final class Hits {
+        private final int[] ids;
+        private final BitSet seen;
+        private final BitSet exact;
+
+        private Hits(int[] ids, BitSet seen, BitSet exact) {
+            this.ids = ids;
+            this.seen = seen;
+            this.exact = exact;
+        }
+
+        /**
+         * 命中的关键词编号，按在文本中首次出现的顺序排列
+         */
+        public int[] ids() {
+            return ids;
+        }
+
+        /**
+         * 编号对应的关键词是否按原始大小写出现
+         */
+        public boolean isExact(int id) {
+            return exact.get(id);
+        }
+
+        /**
+         * 关键词是否出现（忽略大小写）
+         */
+        public boolean contains(String keyword) {
+            Integer id = keywordIds.get(keyword);
+            return id != null && seen.get(id);
+        }
+
+        /**
+         * 关键词是否按原始大小写出现
+         */
+        public boolean containsExact(String keyword) {
+            Integer id = keywordIds.get(keyword);
+            return id != null && exact.get(id);
+        }
+
+        public boolean isEmpty() {
+            return ids.length == 0;
+        }
+    }
+
+    private int step(int state, char c) {
+        int index = Arrays.binarySearch(labels[state], c);
+        return index < 0 ? -1 : targets[state][index];
+    }
+
+    /**
+     * 按层次遍历建立失败链接，并把失败链上的输出合并到每个状态，匹配时无需再沿失败链收集
+     */
+    private void buildFailureLinks() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        fail[ROOT] = ROOT;
+        for (int child : targets[ROOT]) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            char[] chars = labels[state];
+            for (int i = 0; i < chars.length; i++) {
+                char c = chars[i];
+                int child = targets[state][i];
+
+                int f = fail[state];
+                int next;
+                while ((next = step(f, c)) < 0 && f != ROOT) {
+                    f = fail[f];
+                }
+                fail[child] = next < 0 || next == child ? ROOT : next;
+
+                int[] inherited = outputs[fail[child]];
+                if (inherited.length > 0) {
+                    int[] merged = Arrays.copyOf(outputs[child], outputs[child].length + inherited.length);
+                    System.arraycopy(inherited, 0, merged, outputs[child].length, inherited.length);
+                    outputs[child] = merged;
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] append(int[] array, int value) {
+        int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = value;
+        return result;
+    }
+}
@@ -0,0 +1,329 @@
+package com.xhs.analysis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内容分析词库快照
+ * 包含主题、情感、受众分组及其带权重的关键词、配色与风格映射，以及由全部关键词构建的匹配自动机。
+ * 实例不可变，更新词库时整体替换，分析过程中始终使用同一份快照
+ */
+public final class Lexicon {
+
+    /**
+     * 关键词分类
+     */
+    public enum Category {
+        TOPIC, SENTIMENT, AUDIENCE
+    }
+
+    /**
+     * 关键词分组，如 主题“美妆”、情感“positive”、受众“学生”
+     * @param name 分组名称
+     * @param keywords 关键词 → 权重（保持配置顺序）
+     * @param colorScheme 配色方案，可为空
+     * @param style 风格，可为空
+     */
+    public record Group(String name, Map<String, Double> keywords, String colorScheme, String style) {
+    }
+
+    /**
+     * 关键词所属分组及权重
+     */
+    private record Posting(Category category, int group, double weight) {
+    }
+
+    private static final Posting[] NO_POSTINGS = new Posting[0];
+
+    private final List<Group> topics;
+    private final List<Group> sentiments;
+    private final List<Group> audiences;
+    private final Map<String, String> sentimentColors;
+
+    private final String defaultTopic;
+    private final String defaultSentiment;
+    private final String defaultAudience;
+    private final String defaultColorScheme;
+    private final String defaultStyle;
+
+    private final KeywordAutomaton automaton;
+    // 按自动机关键词编号索引
+    private final Posting[][] postings;
+    private final String source;
+
+    private Lexicon(List<Group> topics, List<Group> sentiments, List<Group> audiences,
+                    Map<String, String> sentimentColors, Map<String, String> defaults, String source) {
+        this.topics = List.copyOf(topics);
+        this.sentiments = List.copyOf(sentiments);
+        this.audiences = List.copyOf(audiences);
+        this.sentimentColors = Collections.unmodifiableMap(new LinkedHashMap<>(sentimentColors));
+        this.defaultTopic = defaults.getOrDefault("topic", "生活");
+        this.defaultSentiment = defaults.getOrDefault("sentiment", "neutral");
+        this.defaultAudience = defaults.getOrDefault("audience", "年轻女性");
+        this.defaultColorScheme = defaults.getOrDefault("colorScheme", "粉色系");
+        this.defaultStyle = defaults.getOrDefault("style", "clean");
+        this.source = source;
+
+        List<String> allKeywords = new ArrayList<>();
+        for (List<Group> groups : List.of(this.topics, this.sentiments, this.audiences)) {
+            for (Group group : groups) {
+                allKeywords.addAll(group.keywords().keySet());
+            }
+        }
+        this.automaton = new KeywordAutomaton(allKeywords);
+
+        // 倒排：关键词编号 → 所属分组，打分时只需遍历命中的关键词
+        List<List<Posting>> index = new ArrayList<>(automaton.size());
+        for (int i = 0; i < automaton.size(); i++) {
+            index.add(new ArrayList<>(1));
+        }
+        addPostings(index, Category.TOPIC, this.topics);
+        addPostings(index, Category.SENTIMENT, this.sentiments);
+        addPostings(index, Category.AUDIENCE, this.audiences);
+        this.postings = new Posting[index.size()][];
+        for (int i = 0; i < index.size(); i++) {
+            this.postings[i] = index.get(i).isEmpty() ? NO_POSTINGS : index.get(i).toArray(NO_POSTINGS);
+        }
+    }
+
+    private void addPostings(List<List<Posting>> index, Category category, List<Group> groups) {
+        for (int g = 0; g < groups.size(); g++) {
+            for (Map.Entry<String, Double> entry : groups.get(g).keywords().entrySet()) {
+                index.get(automaton.idOf(entry.getKey())).add(new Posting(category, g, entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * 扫描文本
+     * @param text 文本内容
+     * @return 命中结果
+     */
+    public KeywordAutomaton.Hits match(String text) {
+        return automaton.match(text);
+    }
+
+    /**
+     * 计算各分组得分（命中关键词的权重之和，每个关键词只计一次）
+     * @param hits 命中结果
+     * @param category 分类
+     * @param exactOnly 是否只统计按原始大小写出现的关键词
+     * @return 与分组列表下标对应的得分
+     */
+    public double[] score(KeywordAutomaton.Hits hits, Category category, boolean exactOnly) {
+        double[] scores = new double[groups(category).size()];
+        for (int id : hits.ids()) {
+            if (exactOnly && !hits.isExact(id)) {
+                continue;
+            }
+            for (Posting posting : postings[id]) {
+                if (posting.category() == category) {
+                    scores[posting.group()] += posting.weight();
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * 命中关键词中属于指定分组的关键词，按在文本中首次出现的顺序排列
+     * @param hits 命中结果
+     * @param category 分类
+     * @param groupNames 分组名称
+     * @param exactOnly 是否只返回按原始大小写出现的关键词
+     * @return 关键词列表
+     */
+    public List<String> keywordsOf(KeywordAutomaton.Hits hits, Category category, List<String> groupNames, boolean exactOnly) {
+        List<Group> groups = groups(category);
+        List<String> result = new ArrayList<>();
+        for (int id : hits.ids()) {
+            if (exactOnly && !hits.isExact(id)) {
+                continue;
+            }
+            for (Posting posting : postings[id]) {
+                if (posting.category() == category && groupNames.contains(groups.get(posting.group()).name())) {
+                    result.add(automaton.keyword(id));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否命中指定分类的任一关键词
+     */
+    public boolean containsAny(KeywordAutomaton.Hits hits, Category category, boolean exactOnly) {
+        for (int id : hits.ids()) {
+            if (exactOnly && !hits.isExact(id)) {
+                continue;
+            }
+            for (Posting posting : postings[id]) {
+                if (posting.category() == category) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public List<Group> groups(Category category) {
+        return switch (category) {
+            case TOPIC -> topics;
+            case SENTIMENT -> sentiments;
+            case AUDIENCE -> audiences;
+        };
+    }
+
+    /**
+     * 按名称查找分组
+     * @return 分组，不存在时返回null
+     */
+    public Group group(Category category, String name) {
+        for (Group group : groups(category)) {
+            if (group.name().equals(name)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    public String sentimentColor(String sentiment) {
+        return sentimentColors.get(sentiment);
+    }
+
+    public String getDefaultTopic() {
+        return defaultTopic;
+    }
+
+    public String getDefaultSentiment() {
+        return defaultSentiment;
+    }
+
+    public String getDefaultAudience() {
+        return defaultAudience;
+    }
+
+    public String getDefaultColorScheme() {
+        return defaultColorScheme;
+    }
+
+    public String getDefaultStyle() {
+        return defaultStyle;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 词库中不重复的关键词数量
+     */
+    public int getKeywordCount() {
+        return automaton.size();
+    }
+
+    /**
+     * 从JSON配置解析词库
+     * 关键词可写成数组（权重为1）、数组中的 {"term": "口红", "weight": 2} 对象，或 {"口红": 2} 形式的对象
+     * @param root JSON根节点
+     * @param source 来源描述（如文件路径）
+     * @return 词库快照
+     */
+    public static Lexicon fromJson(JsonNode root, String source) {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        JsonNode defaultsNode = root.path("defaults");
+        defaultsNode.fieldNames().forEachRemaining(name -> defaults.put(name, defaultsNode.get(name).asText()));
+
+        Map<String, String> sentimentColors = new LinkedHashMap<>();
+        JsonNode colorsNode = root.path("sentimentColors");
+        colorsNode.fieldNames().forEachRemaining(name -> sentimentColors.put(name, colorsNode.get(name).asText()));
+
+        return new Lexicon(parseGroups(root.path("topics")), parseGroups(root.path("sentiments")),
+                parseGroups(root.path("audiences")), sentimentColors, defaults, source);
+    }
+
+    private static List<Group> parseGroups(JsonNode groupsNode) {
+        List<Group> groups = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> field : groupsNode.properties()) {
+            JsonNode groupNode = field.getValue();
+            Map<String, Double> keywords = new LinkedHashMap<>();
+
+            JsonNode keywordsNode = groupNode.path("keywords");
+            if (keywordsNode.isArray()) {
+                for (JsonNode keywordNode : keywordsNode) {
+                    if (keywordNode.isObject()) {
+                        putKeyword(keywords, keywordNode.path("term").asText(), keywordNode.path("weight").asDouble(1.0));
+                    } else {
+                        putKeyword(keywords, keywordNode.asText(), 1.0);
+                    }
+                }
+            } else if (keywordsNode.isObject()) {
+                keywordsNode.properties().forEach(entry -> putKeyword(keywords, entry.getKey(), entry.getValue().asDouble(1.0)));
+            }
+
+            groups.add(new Group(field.getKey(), Collections.unmodifiableMap(keywords),
+                    textOrNull(groupNode, "colorScheme"), textOrNull(groupNode, "style")));
+        }
+        return groups;
+    }
+
+    private static void putKeyword(Map<String, Double> keywords, String term, double weight) {
+        if (term != null && !term.isBlank()) {
+            keywords.put(term.strip(), weight);
+        }
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * 内置词库，配置文件不存在或无法解析时使用
+     * @return 词库快照
+     */
+    public static Lexicon builtIn() {
+        List<Group> topics = List.of(
+                group("美妆", "粉色系", "cute", "口红", "粉底", "眼影", "化妆", "护肤", "面膜", "香水"),
+                group("穿搭", "莫兰迪色系", "trendy", "OOTD", "穿搭", "衣服", "鞋子", "包包", "配饰", "时尚"),
+                group("美食", "暖色系", "warm", "美食", "餐厅", "甜品", "咖啡", "烘焙", "食谱", "探店"),
+                group("旅行", "清新蓝绿系", "clean", "旅行", "酒店", "景点", "攻略", "拍照", "打卡", "度假"),
+                group("家居", "简约黑白灰", "clean", "装修", "家具", "收纳", "布置", "改造", "ins风", "北欧"),
+                group("数码", "科技蓝紫系", "professional", "手机", "电脑", "相机", "耳机", "测评", "开箱", "科技"),
+                group("学习", "清新绿系", "clean", "学习", "考试", "考研", "留学", "笔记", "效率", "书籍"),
+                group("健身", "活力橙色系", "professional", "健身", "瑜伽", "减肥", "运动", "健身房", "健康", "塑形")
+        );
+        List<Group> sentiments = List.of(
+                group("positive", null, null, "喜欢", "推荐", "好用", "好看", "好吃", "开心", "满意", "爱", "棒", "赞"),
+                group("negative", null, null, "不好", "失望", "踩雷", "吐槽", "难用", "难看", "难吃", "后悔", "坑", "差"),
+                group("neutral", null, null, "分享", "记录", "日常", "普通", "一般", "介绍", "测评", "体验")
+        );
+        List<Group> audiences = List.of(
+                group("学生", null, "cute", "学生", "校园", "宿舍", "平价", "性价比", "学生党"),
+                group("上班族", null, "clean", "职场", "通勤", "办公室", "OL", "商务", "简约"),
+                group("宝妈", null, "warm", "宝宝", "妈妈", "育儿", "母婴", "家庭", "温馨"),
+                group("小资", null, "professional", "精致", "品质", "高端", "轻奢", "氛围感", "ins风"),
+                group("年轻女性", null, "trendy")
+        );
+        Map<String, String> sentimentColors = new LinkedHashMap<>();
+        sentimentColors.put("positive", "暖色系");
+        sentimentColors.put("negative", "冷色系");
+        sentimentColors.put("neutral", "中性色系");
+
+        return new Lexicon(topics, sentiments, audiences, sentimentColors, Map.of(), "built-in");
+    }
+
+    private static Group group(String name, String colorScheme, String style, String... keywords) {
+        Map<String, Double> weighted = new LinkedHashMap<>();
+        for (String keyword : keywords) {
+            weighted.put(keyword, 1.0);
+        }
+        return new Group(name, Collections.unmodifiableMap(weighted), colorScheme, style);
+    }
+}
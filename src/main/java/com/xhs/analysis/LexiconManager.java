@@ -0,0 +1,148 @@
+package com.xhs.analysis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内容分析词库管理器
+ * 从 config/lexicon.json 加载词库，监听文件变化自动重新加载；新快照构建完成后原子替换，
+ * 正在进行的分析不受影响。文件不存在时使用内置词库，解析失败时保留当前词库
+ */
+@Component
+public class LexiconManager {
+    private static final Logger logger = LoggerFactory.getLogger(LexiconManager.class);
+
+    // 编辑器保存文件时可能连续触发多次事件，合并后再加载
+    private static final long RELOAD_DEBOUNCE_MS = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${analysis.lexicon.path:config/lexicon.json}")
+    private String lexiconPath;
+
+    @Value("${analysis.lexicon.watch:true}")
+    private boolean watchEnabled;
+
+    private volatile Lexicon current = Lexicon.builtIn();
+    private WatchService watchService;
+
+    @PostConstruct
+    public void init() {
+        reload();
+        if (watchEnabled) {
+            startWatching();
+        }
+    }
+
+    /**
+     * 获取当前词库快照
+     * @return 词库快照
+     */
+    public Lexicon current() {
+        return current;
+    }
+
+    /**
+     * 重新加载词库文件
+     * @return 是否加载成功
+     */
+    public synchronized boolean reload() {
+        Path path = Path.of(lexiconPath);
+        if (!Files.exists(path)) {
+            logger.warn("词库文件不存在: {}, 使用{}词库", lexiconPath, current.getSource());
+            return false;
+        }
+
+        try {
+            long start = System.nanoTime();
+            Lexicon lexicon = Lexicon.fromJson(objectMapper.readTree(path.toFile()), lexiconPath);
+            current = lexicon;
+            logger.info("词库加载成功: {}, 关键词 {} 个, 主题 {} 个, 耗时 {} ms", lexiconPath, lexicon.getKeywordCount(),
+                    lexicon.groups(Lexicon.Category.TOPIC).size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (Exception e) {
+            logger.error("词库加载失败, 继续使用当前词库: {}", current.getSource(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 监听词库所在目录（覆盖写入和重命名替换都能感知）
+     */
+    private void startWatching() {
+        Path file = Path.of(lexiconPath).toAbsolutePath();
+        Path directory = file.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            logger.warn("词库目录不存在, 不监听文件变化: {}", directory);
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.error("无法监听词库文件变化", e);
+            return;
+        }
+
+        Thread.ofPlatform().daemon().name("lexicon-watcher").start(() -> watch(file.getFileName()));
+        logger.info("开始监听词库文件变化: {}", file);
+    }
+
+    private void watch(Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+
+                if (changed) {
+                    Thread.sleep(RELOAD_DEBOUNCE_MS);
+                    // 丢弃等待期间的重复事件
+                    WatchKey pending;
+                    while ((pending = watchService.poll()) != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // 应用关闭
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("关闭词库文件监听失败", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.xhs.analysis;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 候选标题清洗与打分
+ * 规则：长度贴近小红书标题习惯（不超过20字）、命中分析出的关键词/主题、带表情符号
+ */
+@Component
+public class TitleRanker {
+
+    private static final int MAX_TITLE_LENGTH = 20;
+    private static final int MIN_TITLE_LENGTH = 6;
+
+    // 模型常见的前缀与包裹符号
+    private static final Pattern TITLE_PREFIX = Pattern.compile("^(?:标题|title)\\s*[:：]\\s*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WRAPPING_QUOTES = Pattern.compile("^[\"'“”「『《]+|[\"'“”」』》]+$");
+    private static final Pattern LIST_MARKER = Pattern.compile("^(?:\\d+[.、)]|[-*•])\\s*");
+
+    /**
+     * 清洗模型返回的标题：取第一行非空内容，去掉序号、“标题：”前缀与引号
+     * @param raw 模型原始输出
+     * @return 清洗后的标题，无有效内容时返回空字符串
+     */
+    public String clean(String raw) {
+        if (raw == null) {
+            return "";
+        }
+        for (String line : raw.split("\\R")) {
+            String title = line.strip();
+            title = LIST_MARKER.matcher(title).replaceFirst("");
+            title = TITLE_PREFIX.matcher(title).replaceFirst("");
+            title = WRAPPING_QUOTES.matcher(title).replaceAll("").strip();
+            if (!title.isEmpty()) {
+                return title;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 计算标题得分
+     * @param title 清洗后的标题
+     * @param analysis 内容分析结果
+     * @return 得分，越高越好
+     */
+    public double score(String title, ContentAnalysis analysis) {
+        if (title == null || title.isEmpty()) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double score = 0;
+
+        int length = title.codePointCount(0, title.length());
+        if (length > MAX_TITLE_LENGTH) {
+            score -= (length - MAX_TITLE_LENGTH) * 0.5;
+        } else if (length < MIN_TITLE_LENGTH) {
+            score -= 2;
+        } else {
+            score += 3;
+        }
+
+        score += Math.min(3, countMatches(title, analysis.getKeywords())) * 2;
+        score += Math.min(2, countMatches(title, analysis.getTopics()));
+
+        if (title.codePoints().anyMatch(TitleRanker::isEmoji)) {
+            score += 1;
+        }
+        return score;
+    }
+
+    private static int countMatches(String title, List<String> words) {
+        if (words == null) {
+            return 0;
+        }
+        int count = 0;
+        for (String word : words) {
+            if (word != null && !word.isEmpty() && title.contains(word)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isEmoji(int codePoint) {
+        return Character.getType(codePoint) == Character.OTHER_SYMBOL
+                || (codePoint >= 0x1F000 && codePoint <= 0x1FAFF);
+    }
+}
@@ -3,11 +3,14 @@ package com.xhs.browser;
 import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.Geolocation;
 import com.microsoft.playwright.options.Proxy;
+import com.microsoft.playwright.options.WaitForSelectorState;
 import com.microsoft.playwright.options.WaitUntilState;
 import com.xhs.entity.BrowserEnvironment;
 import com.xhs.utils.AntiDetectionManager;
+import com.xhs.utils.AutomationConfig;
 import com.xhs.utils.PublishStatusMonitor;
 import com.xhs.utils.SelectorManager;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,8 +18,9 @@ import org.springframework.stereotype.Service;
 
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 public class BrowserAutomationService {
@@ -26,9 +30,10 @@ public class BrowserAutomationService {
     private final SelectorManager selectorManager;
     private final AntiDetectionManager antiDetectionManager;
     private final PublishStatusMonitor publishStatusMonitor;
+    private final SessionStateStore sessionStateStore;
+    private final BrowserContextManager browserContextManager;
+    private final AutomationConfig automationConfig;
 
-    // 保存浏览器实例，使用线程安全的Map
-    private final ConcurrentHashMap<Long, BrowserContext> browserContextMap = new ConcurrentHashMap<>();
     private final AtomicBoolean isPlaywrightInitialized = new AtomicBoolean(false);
     private Playwright playwright;
     private Browser browser;
@@ -36,10 +41,16 @@ public class BrowserAutomationService {
     @Autowired
     public BrowserAutomationService(SelectorManager selectorManager, 
                                    AntiDetectionManager antiDetectionManager,
-                                   PublishStatusMonitor publishStatusMonitor) {
+                                   PublishStatusMonitor publishStatusMonitor,
+                                   SessionStateStore sessionStateStore,
+                                   BrowserContextManager browserContextManager,
+                                   AutomationConfig automationConfig) {
         this.selectorManager = selectorManager;
         this.antiDetectionManager = antiDetectionManager;
         this.publishStatusMonitor = publishStatusMonitor;
+        this.sessionStateStore = sessionStateStore;
+        this.browserContextManager = browserContextManager;
+        this.automationConfig = automationConfig;
     }
 
     // 初始化Playwright
@@ -76,10 +87,19 @@ public class BrowserAutomationService {
         }
     }
 
-    // 为用户创建浏览器上下文
+    // 租用环境的浏览器上下文（已有时复用），使用完毕后调用 releaseBrowserContext 归还
     public BrowserContext createBrowserContext(BrowserEnvironment environment) {
         initializePlaywright();
-        
+        return browserContextManager.acquire(environment.getId(), () -> newBrowserContext(environment));
+    }
+
+    // 归还租用的浏览器上下文，空闲超时后由 BrowserContextManager 关闭
+    public void releaseBrowserContext(Long environmentId) {
+        browserContextManager.release(environmentId);
+    }
+
+    // 按环境的指纹、代理和登录状态快照创建新的浏览器上下文
+    private BrowserContext newBrowserContext(BrowserEnvironment environment) {        
         Browser.NewContextOptions contextOptions = new Browser.NewContextOptions();
         
         // 设置浏览器指纹
@@ -107,9 +127,14 @@ public class BrowserAutomationService {
             contextOptions.setProxy(new Proxy(proxyUrl));
             logger.info("设置代理: {}", proxyUrl);
         }
+
+        // 恢复上次登录保存的存储状态
+        sessionStateStore.find(environment.getId()).ifPresent(path -> {
+            contextOptions.setStorageStatePath(path);
+            logger.info("恢复登录状态快照, 环境ID: {}", environment.getId());
+        });
         
         BrowserContext context = browser.newContext(contextOptions);
-        browserContextMap.put(environment.getId(), context);
         
         // 注入反检测脚本
         injectStealthScript(context);
@@ -120,19 +145,13 @@ public class BrowserAutomationService {
 
     // 获取浏览器上下文
     public BrowserContext getBrowserContext(Long environmentId) {
-        return browserContextMap.get(environmentId);
+        return browserContextManager.get(environmentId);
     }
 
     // 关闭浏览器上下文
     public void closeBrowserContext(Long environmentId) {
-        BrowserContext context = browserContextMap.remove(environmentId);
-        if (context != null) {
-            try {
-                context.close();
-                logger.info("关闭浏览器上下文成功, 环境ID: {}", environmentId);
-            } catch (Exception e) {
-                logger.error("关闭浏览器上下文失败, 环境ID: {}: {}", environmentId, e.getMessage(), e);
-            }
+        if (browserContextManager.close(environmentId)) {
+            logger.info("关闭浏览器上下文成功, 环境ID: {}", environmentId);
         }
     }
 
@@ -194,6 +213,13 @@ public class BrowserAutomationService {
             // 等待页面加载
             page.waitForLoadState();
 
+            // 恢复的会话仍有效时跳过登录，并重新保存快照（刷新服务端续期的Cookie和快照时间）
+            if (isLoggedIn(page)) {
+                logger.info("登录状态有效, 跳过登录, 环境ID: {}", environmentId);
+                sessionStateStore.save(context, environmentId);
+                return true;
+            }
+
             // 查找并点击登录按钮
             Locator loginButton = selectorManager.findElement(page, "login", "loginButton");
             if (loginButton.count() > 0) {
@@ -216,16 +242,21 @@ public class BrowserAutomationService {
                         codeButton.click();
                         logger.info("已点击获取验证码按钮");
                         
-                        // 等待用户输入验证码（实际应用中需要从外部获取验证码）
-                        page.waitForTimeout(30000); // 等待30秒供用户输入验证码
+                        // 等待用户输入验证码（实际应用中需要从外部获取验证码），出现已登录标识即继续
                     }
                 }
             } else {
                 logger.warn("未找到登录按钮");
             }
 
-            // 等待登录完成（这里需要根据实际页面元素判断）
-            page.waitForTimeout(5000);
+            // 等待登录完成：出现已登录标识，最长等待配置的超时时间
+            // 确认已登录后保存存储状态，下次创建上下文时恢复；未能确认时丢弃旧快照并返回失败，不在未登录状态下继续发布
+            if (!waitForLoggedIn(page)) {
+                logger.warn("等待登录超时, 未能确认登录状态, 环境ID: {}", environmentId);
+                sessionStateStore.invalidate(environmentId);
+                return false;
+            }
+            sessionStateStore.save(context, environmentId);
             
             logger.info("登录流程执行完成");
             return true;
@@ -233,166 +264,253 @@ public class BrowserAutomationService {
             logger.error("登录过程中发生错误: {}", e.getMessage(), e);
             return false;
         } finally {
-            // 注意：这里不应该关闭页面，因为登录后页面需要保持打开状态
+            // 登录状态保存在上下文中，上下文会被复用，关闭登录页面避免页面越积越多
+            if (page != null) {
+                page.close();
+            }
         }
     }
 
-    // 发布笔记
+    // 页面上是否出现已登录标识（loggedInIndicators）
+    private boolean isLoggedIn(Page page) {
+        try {
+            return selectorManager.anyOf(page, "login", "loggedInIndicators").count() > 0;
+        } catch (Exception e) {
+            logger.debug("检查已登录标识失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // 等待已登录标识出现
+    private boolean waitForLoggedIn(Page page) {
+        try {
+            selectorManager.anyOf(page, "login", "loggedInIndicators")
+                    .waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.ATTACHED)
+                            .setTimeout(automationConfig.getTimeoutMs()));
+            return true;
+        } catch (TimeoutError e) {
+            return false;
+        }
+    }
+
+    // 发布笔记（依次执行打开发布页、上传图片、填写、提交、确认各阶段）
     public boolean publishNote(Long environmentId, String title, String content, String[] imagePaths) {
+        Page page = null;
+        try {
+            page = openPublishPage(environmentId);
+            uploadImages(page, imagePaths);
+            fillNote(page, title, content);
+            PublishStatusMonitor.PublishResult result = confirmPublish(submitNote(page));
+            return result.status() == PublishStatusMonitor.PublishStatus.SUCCESS;
+        } catch (Exception e) {
+            logger.error("发布笔记过程中发生错误: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            if (page != null) {
+                page.close();
+            }
+        }
+    }
+
+    // 打开创作者中心并进入发布页面，调用方负责关闭返回的页面
+    public Page openPublishPage(Long environmentId) {
         BrowserContext context = getBrowserContext(environmentId);
         if (context == null) {
-            logger.error("浏览器上下文不存在, 环境ID: {}", environmentId);
-            return false;
+            throw new IllegalStateException("浏览器上下文不存在, 环境ID: " + environmentId);
         }
-        
-        Page page = null;
+
+        Page page = context.newPage();
         try {
-            page = context.newPage();
-            
             // 导航到创作者中心或发布页面
             page.navigate("https://creator.xiaohongshu.com/");
             logger.info("导航到创作者中心成功");
-            
+
             antiDetectionManager.randomDelay(page);
             antiDetectionManager.randomMouseMove(page);
-            
+
             // 等待页面加载
             page.waitForLoadState();
-            
+
             // 点击发布按钮
             Locator publishEntryButton = selectorManager.findElement(page, "publish", "publishEntryButton");
-            if (publishEntryButton.count() > 0) {
-                publishEntryButton.click();
-                logger.info("点击发布按钮成功");
-                
-                // 等待发布页面加载
-                antiDetectionManager.randomDelay(page, 2000, 4000);
-                
-                // 上传图片
-                if (imagePaths != null && imagePaths.length > 0) {
-                    uploadImages(page, imagePaths);
-                }
-                
-                antiDetectionManager.randomScroll(page);
-                antiDetectionManager.randomDelay(page);
-                
-                // 输入标题
-                Locator titleInput = selectorManager.findElement(page, "publish", "titleInput");
-                if (titleInput.count() > 0) {
-                    titleInput.fill(title);
-                    logger.info("输入标题成功: {}", title);
-                    antiDetectionManager.randomDelay(page, 500, 1500);
-                } else {
-                    logger.warn("未找到标题输入框");
-                }
-                
-                // 输入内容
-                Locator contentInput = selectorManager.findElement(page, "publish", "contentInput");
-                if (contentInput.count() > 0) {
-                    contentInput.fill(content);
-                    logger.info("输入内容成功");
-                    antiDetectionManager.randomDelay(page, 500, 1500);
-                } else {
-                    logger.warn("未找到内容输入框");
-                }
-                
-                // 点击发布
-                Locator finalPublishButton = selectorManager.findElement(page, "publish", "finalPublishButton");
-                if (finalPublishButton.count() > 0) {
-                    finalPublishButton.click();
-                    logger.info("点击最终发布按钮成功");
-                    
-                    // 等待发布完成 - 现在使用 PublishStatusMonitor 监控
-                    PublishStatusMonitor.PublishStatus status = publishStatusMonitor.waitForPublishComplete(page, 10000);
-                    if (status == PublishStatusMonitor.PublishStatus.SUCCESS) {
-                        logger.info("笔记发布成功确认");
-                        return true;
-                    } else if (status == PublishStatusMonitor.PublishStatus.FAILED) {
-                        logger.error("笔记发布失败");
-                        return false;
-                    } else {
-                        logger.warn("无法确认发布状态，可能需要人工检查");
-                        // 这里可以根据业务需求决定是返回 true 还是 false，或者抛出异常
-                        // 目前假设如果没报错也没成功，可能是网络慢或者其他原因，暂时返回 false 让上层重试或人工处理
-                        return false;
-                    }
-                } else {
-                    logger.warn("未找到最终发布按钮");
-                    return false;
-                }
-            } else {
-                logger.error("未找到发布入口按钮");
-                return false;
+            if (publishEntryButton.count() == 0) {
+                throw new IllegalStateException("未找到发布入口按钮");
             }
-        } catch (Exception e) {
-            logger.error("发布笔记过程中发生错误: {}", e.getMessage(), e);
-            return false;
-        } finally {
-            if (page != null) {
-                page.close();
+            publishEntryButton.click();
+            logger.info("点击发布按钮成功");
+
+            // 等待发布页面加载
+            antiDetectionManager.randomDelay(page, 2000, 4000);
+            return page;
+        } catch (RuntimeException e) {
+            page.close();
+            throw e;
+        }
+    }
+
+    // 输入标题和内容
+    public void fillNote(Page page, String title, String content) {
+        antiDetectionManager.randomScroll(page);
+        antiDetectionManager.randomDelay(page);
+
+        // 输入标题
+        Locator titleInput = selectorManager.findElement(page, "publish", "titleInput");
+        if (titleInput.count() > 0) {
+            titleInput.fill(title);
+            logger.info("输入标题成功: {}", title);
+            antiDetectionManager.randomDelay(page, 500, 1500);
+        } else {
+            logger.warn("未找到标题输入框");
+        }
+
+        // 输入内容
+        Locator contentInput = selectorManager.findElement(page, "publish", "contentInput");
+        if (contentInput.count() > 0) {
+            contentInput.fill(content);
+            logger.info("输入内容成功");
+            antiDetectionManager.randomDelay(page, 500, 1500);
+        } else {
+            logger.warn("未找到内容输入框");
+        }
+    }
+
+    // 点击最终发布按钮；点击前开始监听发布接口响应，返回的监听交给 confirmPublish 等待结果
+    public PublishStatusMonitor.PublishWatch submitNote(Page page) {
+        Locator finalPublishButton = selectorManager.findElement(page, "publish", "finalPublishButton");
+        if (finalPublishButton.count() == 0) {
+            throw new IllegalStateException("未找到最终发布按钮");
+        }
+        PublishStatusMonitor.PublishWatch watch = publishStatusMonitor.watch(page);
+        try {
+            finalPublishButton.click();
+        } catch (RuntimeException e) {
+            watch.close();
+            throw e;
+        }
+        logger.info("点击最终发布按钮成功");
+        return watch;
+    }
+
+    // 等待发布结果 - 使用 PublishStatusMonitor 监控，结束后停止监听
+    public PublishStatusMonitor.PublishResult confirmPublish(PublishStatusMonitor.PublishWatch watch) {
+        try (watch) {
+            PublishStatusMonitor.PublishResult result = publishStatusMonitor.waitForPublishComplete(watch, automationConfig.getMaxPublishWaitMs());
+            if (result.status() == PublishStatusMonitor.PublishStatus.SUCCESS) {
+                logger.info("笔记发布成功确认, 笔记ID: {}", result.noteId());
+            } else if (result.status() == PublishStatusMonitor.PublishStatus.FAILED) {
+                logger.error("笔记发布失败: {}", result.message());
+            } else {
+                logger.warn("无法确认发布状态，可能需要人工检查");
             }
+            return result;
         }
     }
 
-    // 上传图片
+    // 上传图片，上传失败时抛出异常，在提交前结束发布
     public void uploadImages(Page page, String[] imagePaths) {
         if (imagePaths == null || imagePaths.length == 0) {
             logger.info("没有图片需要上传");
             return;
         }
         
-        try {
-            // 查找上传按钮
-            Locator uploadButton = selectorManager.findElement(page, "publish", "uploadInput");
+        // 查找上传按钮
+        Locator uploadButton = selectorManager.findElement(page, "publish", "uploadInput");
+        
+        // 准备文件路径数组
+        java.nio.file.Path[] filePaths = new java.nio.file.Path[imagePaths.length];
+        for (int i = 0; i < imagePaths.length; i++) {
+            filePaths[i] = Paths.get(imagePaths[i]);
+        }
+
+        if (uploadButton.count() > 0) {
+            // 设置文件到上传输入框
+            setFilesAndAwaitUpload(page, uploadButton, filePaths);
+            logger.info("批量上传图片成功: {}", imagePaths.length + "张图片");
+            return;
+        }
+
+        logger.warn("未找到图片上传按钮，尝试其他方式上传");
+        
+        // 如果直接找不到上传按钮，尝试点击可能的区域
+        Locator imageUploadArea = selectorManager.findElement(page, "publish", "imageUploadArea");
+        if (imageUploadArea.count() > 0) {
+            imageUploadArea.click();
+            antiDetectionManager.randomDelay(page, 500, 1000);
             
+            // 再次尝试查找上传按钮
+            uploadButton = selectorManager.findElement(page, "publish", "uploadInput");
             if (uploadButton.count() > 0) {
-                // 准备文件路径数组
-                java.nio.file.Path[] filePaths = new java.nio.file.Path[imagePaths.length];
-                for (int i = 0; i < imagePaths.length; i++) {
-                    filePaths[i] = Paths.get(imagePaths[i]);
-                }
-                
-                // 设置文件到上传输入框
-                uploadButton.setInputFiles(filePaths);
-                logger.info("批量上传图片成功: {}", imagePaths.length + "张图片");
-            } else {
-                logger.warn("未找到图片上传按钮，尝试其他方式上传");
-                
-                // 如果直接找不到上传按钮，尝试点击可能的区域
-                Locator imageUploadArea = selectorManager.findElement(page, "publish", "imageUploadArea");
-                if (imageUploadArea.count() > 0) {
-                    imageUploadArea.click();
-                    antiDetectionManager.randomDelay(page, 500, 1000);
-                    
-                    // 再次尝试查找上传按钮
-                    uploadButton = selectorManager.findElement(page, "publish", "uploadInput");
-                    if (uploadButton.count() > 0) {
-                        java.nio.file.Path[] filePaths = new java.nio.file.Path[imagePaths.length];
-                        for (int i = 0; i < imagePaths.length; i++) {
-                            filePaths[i] = Paths.get(imagePaths[i]);
-                        }
-                        uploadButton.setInputFiles(filePaths);
-                        logger.info("通过点击区域后上传图片成功");
-                    }
+                setFilesAndAwaitUpload(page, uploadButton, filePaths);
+                logger.info("通过点击区域后上传图片成功");
+                return;
+            }
+        }
+        throw new IllegalStateException("未找到图片上传按钮");
+    }
+
+    // 设置上传文件，并等待每张图片的上传请求结束，有上传请求失败或等待超时时抛出异常
+    private void setFilesAndAwaitUpload(Page page, Locator uploadInput, java.nio.file.Path[] filePaths) {
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        // 请求完成不代表上传成功，服务端返回4xx/5xx时按失败计
+        Consumer<Request> onFinished = request -> {
+            if (isUploadRequest(request)) {
+                if (isSuccessful(request)) {
+                    finished.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
                 }
             }
-            
-            // 等待图片上传完成
-            page.waitForTimeout(5000);
+        };
+        Consumer<Request> onFailed = request -> {
+            if (isUploadRequest(request)) {
+                failed.incrementAndGet();
+            }
+        };
+        page.onRequestFinished(onFinished);
+        page.onRequestFailed(onFailed);
+        try {
+            uploadInput.setInputFiles(filePaths);
+            page.waitForCondition(() -> finished.get() + failed.get() >= filePaths.length,
+                    new Page.WaitForConditionOptions().setTimeout(automationConfig.getUploadTimeoutMs()));
+        } catch (TimeoutError e) {
+            throw new IllegalStateException("等待图片上传超时, 已结束 " + (finished.get() + failed.get()) + "/"
+                    + filePaths.length + " 个上传请求", e);
+        } finally {
+            page.offRequestFinished(onFinished);
+            page.offRequestFailed(onFailed);
+        }
+        if (failed.get() > 0) {
+            throw new IllegalStateException("有 " + failed.get() + " 张图片上传失败");
+        }
+    }
+
+    private boolean isSuccessful(Request request) {
+        try {
+            Response response = request.response();
+            if (response != null && response.status() < 400) {
+                return true;
+            }
+            logger.warn("图片上传请求被拒绝, 状态: {}, URL: {}", response != null ? response.status() : "无响应", request.url());
         } catch (Exception e) {
-            logger.error("上传图片过程中发生错误: {}", e.getMessage(), e);
+            logger.warn("读取图片上传响应失败: {}", e.getMessage());
         }
+        return false;
+    }
+
+    private boolean isUploadRequest(Request request) {
+        String method = request.method();
+        return ("PUT".equals(method) || "POST".equals(method))
+                && AutomationConfig.matches(request.url(), automationConfig.getUploadUrlPatterns());
     }
 
     // 关闭Playwright
+    @PreDestroy
     public void closePlaywright() {
         if (isPlaywrightInitialized.compareAndSet(true, false)) {
             try {
                 // 关闭所有浏览器上下文
-                for (BrowserContext context : browserContextMap.values()) {
-                    context.close();
-                }
-                browserContextMap.clear();
+                browserContextManager.closeAll();
                 
                 if (browser != null) {
                     browser.close();
@@ -0,0 +1,414 @@
+package com.xhs.browser;
+
+import com.microsoft.playwright.BrowserContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 浏览器上下文生命周期管理
+ * 每个浏览器环境最多一个上下文并复用；存活上下文数有上限，达到上限时按最久未使用（LRU）关闭空闲上下文，
+ * 空闲超过指定时间的上下文定期关闭；使用中的上下文（租用计数大于0）不会被关闭。
+ * 创建和关闭上下文都在锁外进行；Playwright 不是线程安全的，空闲上下文先移出管理等待关闭，
+ * 由下一次租用或归还上下文的业务线程关闭，或由定时任务在没有上下文被租用时关闭（关闭期间新的租用等待）。
+ * 同时统计 Chromium 进程数和内存占用
+ */
+@Component
+public class BrowserContextManager implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserContextManager.class);
+
+    // 进程统计的缓存时间，避免每次读取指标都扫描 /proc
+    private static final long PROCESS_SAMPLE_TTL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // 存活上下文上限
+    @Value("${browser.context.max-contexts:4}")
+    private int maxContexts;
+
+    // 空闲上下文的保留时间
+    @Value("${browser.context.idle-ttl-minutes:15}")
+    private long idleTtlMinutes;
+
+    // 环境ID → 上下文，按访问顺序排列（最久未使用的在前），由自身的锁保护
+    private final LinkedHashMap<Long, ManagedContext> contexts = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 被移出管理、等待关闭的上下文，由 contexts 的锁保护
+    private final List<BrowserContext> pendingClose = new ArrayList<>();
+
+    // 是否正在关闭等待关闭的上下文，由 contexts 的锁保护
+    private boolean draining;
+
+    private volatile ProcessSample processSample;
+
+    private static final class ManagedContext {
+        // 创建完成前为null，此时占位以免同一环境重复创建，并计入上限
+        private BrowserContext context;
+        private final CompletableFuture<BrowserContext> created = new CompletableFuture<>();
+        private int leases;
+        private long lastUsedNanos;
+
+        private ManagedContext() {
+            this.lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Chromium 进程统计
+     * @param processCount 进程数
+     * @param memoryBytes 内存占用（各进程 PSS 之和，不支持时为 RSS 之和），无法读取时为-1
+     */
+    public record ProcessSample(int processCount, long memoryBytes, long sampledAtNanos) {
+    }
+
+    /**
+     * 租用环境的上下文：已有则复用，否则创建；使用完毕后必须调用 {@link #release(Long)}
+     * @param environmentId 浏览器环境ID
+     * @param factory 创建上下文
+     * @return 浏览器上下文
+     * @throws IllegalStateException 存活上下文已达上限且都在使用中
+     */
+    public BrowserContext acquire(Long environmentId, Supplier<BrowserContext> factory) {
+        drainPendingClose(false);
+
+        ManagedContext managed;
+        boolean creator = false;
+        List<BrowserContext> evicted = new ArrayList<>();
+        synchronized (contexts) {
+            awaitDrained();
+            managed = contexts.get(environmentId);
+            if (managed == null) {
+                // 按LRU移出空闲上下文并放入占位，关闭和创建都在锁外进行
+                evictForCapacity(evicted);
+                if (contexts.size() >= maxContexts) {
+                    pendingClose.addAll(evicted);
+                    throw new IllegalStateException("浏览器上下文已达上限 " + maxContexts + ", 且都在使用中");
+                }
+                managed = new ManagedContext();
+                contexts.put(environmentId, managed);
+                creator = true;
+            }
+            managed.leases++;
+            managed.lastUsedNanos = System.nanoTime();
+            if (managed.context != null) {
+                logger.debug("复用浏览器上下文, 环境ID: {}", environmentId);
+                return managed.context;
+            }
+        }
+
+        if (!creator) {
+            // 其他线程正在创建同一环境的上下文，等待创建完成
+            return await(managed);
+        }
+        // 先关闭被淘汰的上下文再创建，避免短时间内超出上限
+        closeAll(evicted);
+        return create(environmentId, managed, factory);
+    }
+
+    /**
+     * 归还租用的上下文，上下文保留以便复用，空闲超时后关闭
+     * @param environmentId 浏览器环境ID
+     */
+    public void release(Long environmentId) {
+        synchronized (contexts) {
+            ManagedContext managed = contexts.get(environmentId);
+            if (managed != null && managed.leases > 0) {
+                managed.leases--;
+                managed.lastUsedNanos = System.nanoTime();
+            }
+        }
+        drainPendingClose(false);
+    }
+
+    /**
+     * 获取环境的上下文（不租用）
+     * @param environmentId 浏览器环境ID
+     * @return 上下文，不存在或尚未创建完成时返回null
+     */
+    public BrowserContext get(Long environmentId) {
+        synchronized (contexts) {
+            ManagedContext managed = contexts.get(environmentId);
+            return managed != null ? managed.context : null;
+        }
+    }
+
+    /**
+     * 立即关闭环境的上下文
+     * @param environmentId 浏览器环境ID
+     * @return 是否存在并已关闭
+     */
+    public boolean close(Long environmentId) {
+        ManagedContext managed;
+        synchronized (contexts) {
+            managed = contexts.remove(environmentId);
+        }
+        if (managed == null) {
+            return false;
+        }
+        // 仍在创建中的上下文由创建线程发现占位已移除后关闭
+        if (managed.context != null) {
+            closeAll(List.of(managed.context));
+        }
+        return true;
+    }
+
+    /**
+     * 关闭所有上下文（关闭浏览器前）
+     */
+    public void closeAll() {
+        List<BrowserContext> all = new ArrayList<>();
+        synchronized (contexts) {
+            contexts.values().stream().filter(managed -> managed.context != null).forEach(managed -> all.add(managed.context));
+            contexts.clear();
+            all.addAll(pendingClose);
+            pendingClose.clear();
+        }
+        closeAll(all);
+    }
+
+    /**
+     * 每分钟将空闲超时的上下文移出管理，没有上下文被租用时直接关闭；
+     * 有上下文在使用时不在定时任务线程上调用 Playwright，留给下一次归还或之后的定时任务关闭
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long ttlNanos = TimeUnit.MINUTES.toNanos(idleTtlMinutes);
+        long now = System.nanoTime();
+        int evicted = 0;
+        synchronized (contexts) {
+            Iterator<ManagedContext> iterator = contexts.values().iterator();
+            while (iterator.hasNext()) {
+                ManagedContext managed = iterator.next();
+                if (managed.leases == 0 && now - managed.lastUsedNanos >= ttlNanos) {
+                    iterator.remove();
+                    pendingClose.add(managed.context);
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            logger.info("空闲浏览器上下文 {} 个已移出, 等待关闭", evicted);
+        }
+        drainPendingClose(true);
+    }
+
+    /**
+     * 获取上下文和 Chromium 进程统计
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (contexts) {
+            stats.put("liveContexts", contexts.size() + pendingClose.size());
+            stats.put("inUseContexts", contexts.values().stream().filter(managed -> managed.leases > 0).count());
+            stats.put("environmentIds", new ArrayList<>(contexts.keySet()));
+            stats.put("pendingCloseContexts", pendingClose.size());
+        }
+        stats.put("maxContexts", maxContexts);
+        ProcessSample sample = sampleProcesses();
+        stats.put("chromiumProcesses", sample.processCount());
+        stats.put("chromiumMemoryBytes", sample.memoryBytes());
+        return stats;
+    }
+
+    /**
+     * 统计本进程启动的 Chromium 进程（Playwright 驱动的子孙进程），结果缓存一小段时间
+     */
+    public ProcessSample sampleProcesses() {
+        ProcessSample sample = processSample;
+        long now = System.nanoTime();
+        if (sample != null && now - sample.sampledAtNanos() < PROCESS_SAMPLE_TTL_NANOS) {
+            return sample;
+        }
+        int count = 0;
+        long memory = 0;
+        boolean memoryKnown = true;
+        for (ProcessHandle process : ProcessHandle.current().descendants().toList()) {
+            String command = process.info().command().orElse("");
+            if (!command.contains("chrom") && !command.contains("headless_shell")) {
+                continue;
+            }
+            count++;
+            long bytes = memoryOf(process.pid());
+            if (bytes < 0) {
+                memoryKnown = false;
+            } else {
+                memory += bytes;
+            }
+        }
+        sample = new ProcessSample(count, memoryKnown ? memory : -1, now);
+        processSample = sample;
+        return sample;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("xhs.browser.contexts.live", this, manager -> manager.countContexts(false))
+                .description("存活的浏览器上下文数").register(registry);
+        Gauge.builder("xhs.browser.contexts.in-use", this, manager -> manager.countContexts(true))
+                .description("使用中的浏览器上下文数").register(registry);
+        Gauge.builder("xhs.browser.contexts.pending-close", this, BrowserContextManager::countPendingClose)
+                .description("已移出管理、等待关闭的浏览器上下文数").register(registry);
+        Gauge.builder("xhs.browser.chromium.processes", this, manager -> manager.sampleProcesses().processCount())
+                .description("Chromium 进程数").register(registry);
+        Gauge.builder("xhs.browser.chromium.memory", this, manager -> manager.sampleProcesses().memoryBytes())
+                .description("Chromium 进程内存占用").baseUnit("bytes").register(registry);
+    }
+
+    // 存活上下文数包含等待关闭的上下文
+    private int countContexts(boolean inUseOnly) {
+        synchronized (contexts) {
+            int managed = (int) contexts.values().stream().filter(context -> !inUseOnly || context.leases > 0).count();
+            return inUseOnly ? managed : managed + pendingClose.size();
+        }
+    }
+
+    private int countPendingClose() {
+        synchronized (contexts) {
+            return pendingClose.size();
+        }
+    }
+
+    // 达到上限时按最久未使用的顺序移出空闲上下文，调用方持有锁
+    private void evictForCapacity(List<BrowserContext> evicted) {
+        Iterator<Map.Entry<Long, ManagedContext>> iterator = contexts.entrySet().iterator();
+        while (contexts.size() >= maxContexts && iterator.hasNext()) {
+            Map.Entry<Long, ManagedContext> entry = iterator.next();
+            if (entry.getValue().leases == 0) {
+                iterator.remove();
+                evicted.add(entry.getValue().context);
+                logger.info("浏览器上下文已达上限, 关闭最久未使用的上下文, 环境ID: {}", entry.getKey());
+            }
+        }
+    }
+
+    // 在锁外创建上下文并填入占位；失败或创建期间占位已被移除时不纳入管理
+    private BrowserContext create(Long environmentId, ManagedContext managed, Supplier<BrowserContext> factory) {
+        BrowserContext context;
+        try {
+            context = factory.get();
+        } catch (RuntimeException e) {
+            remove(environmentId, managed);
+            managed.created.completeExceptionally(e);
+            throw e;
+        }
+
+        boolean registered;
+        synchronized (contexts) {
+            registered = contexts.get(environmentId) == managed;
+            if (registered) {
+                managed.context = context;
+            }
+        }
+        if (!registered) {
+            // 创建期间上下文已被关闭（如删除环境、关闭浏览器）
+            closeAll(List.of(context));
+            IllegalStateException e = new IllegalStateException("浏览器上下文已关闭, 环境ID: " + environmentId);
+            managed.created.completeExceptionally(e);
+            throw e;
+        }
+        // 上下文被关闭（如浏览器崩溃）时移出管理
+        context.onClose(closed -> remove(environmentId, managed));
+        managed.created.complete(context);
+        logger.info("创建浏览器上下文, 环境ID: {}, 存活上下文: {}", environmentId, countContexts(false));
+        return context;
+    }
+
+    // 等待其他线程创建的上下文
+    private static BrowserContext await(ManagedContext managed) {
+        try {
+            return managed.created.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // 关闭等待关闭的上下文，同一时间只有一个线程在关闭；onlyWhenIdle 为true时（定时任务线程）只在没有上下文被租用时关闭
+    private void drainPendingClose(boolean onlyWhenIdle) {
+        List<BrowserContext> closing;
+        synchronized (contexts) {
+            if (pendingClose.isEmpty() || draining
+                    || (onlyWhenIdle && contexts.values().stream().anyMatch(managed -> managed.leases > 0))) {
+                return;
+            }
+            closing = new ArrayList<>(pendingClose);
+            pendingClose.clear();
+            draining = true;
+        }
+        try {
+            logger.info("关闭空闲浏览器上下文 {} 个", closing.size());
+            closeAll(closing);
+        } finally {
+            synchronized (contexts) {
+                draining = false;
+                contexts.notifyAll();
+            }
+        }
+    }
+
+    // 等待正在进行的关闭完成后再租用，避免关闭期间其他线程同时调用 Playwright，调用方持有锁
+    private void awaitDrained() {
+        while (draining) {
+            try {
+                contexts.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待浏览器上下文关闭时被中断", e);
+            }
+        }
+    }
+
+    private void remove(Long environmentId, ManagedContext managed) {
+        synchronized (contexts) {
+            contexts.remove(environmentId, managed);
+        }
+    }
+
+    private static void closeAll(List<BrowserContext> closing) {
+        for (BrowserContext context : closing) {
+            try {
+                context.close();
+            } catch (Exception e) {
+                logger.warn("关闭浏览器上下文失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    // 读取进程内存：优先 PSS（按共享页比例分摊，求和不会重复计算共享内存），否则 RSS；非 Linux 返回-1
+    private static long memoryOf(long pid) {
+        long pss = readKilobytes(Paths.get("/proc", String.valueOf(pid), "smaps_rollup"), "Pss:");
+        return pss >= 0 ? pss : readKilobytes(Paths.get("/proc", String.valueOf(pid), "status"), "VmRSS:");
+    }
+
+    private static long readKilobytes(Path path, String field) {
+        try {
+            for (String line : Files.readAllLines(path)) {
+                if (line.startsWith(field)) {
+                    String value = line.substring(field.length()).trim();
+                    return Long.parseLong(value.substring(0, value.indexOf(' '))) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 进程已退出或系统不支持
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,111 @@
+package com.xhs.browser;
+
+import com.microsoft.playwright.BrowserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * 登录状态快照存储
+ * 登录成功后将浏览器上下文的存储状态（Cookie 和 localStorage）按浏览器环境保存为文件，
+ * 下次创建上下文时恢复，会话仍有效时可跳过登录流程
+ */
+@Component
+public class SessionStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStateStore.class);
+
+    // 快照保存目录
+    @Value("${browser.session.state-dir:data/sessions}")
+    private String stateDir;
+
+    // 快照最长有效时间，超过后不再恢复，重新登录
+    @Value("${browser.session.max-age-hours:168}")
+    private long maxAgeHours;
+
+    /**
+     * 查找可恢复的快照
+     * @param environmentId 浏览器环境ID
+     * @return 快照文件，不存在或已过期时为空
+     */
+    public Optional<Path> find(Long environmentId) {
+        Path path = path(environmentId);
+        try {
+            if (!Files.isRegularFile(path)) {
+                return Optional.empty();
+            }
+            Instant modified = Files.getLastModifiedTime(path).toInstant();
+            if (modified.plus(Duration.ofHours(maxAgeHours)).isBefore(Instant.now())) {
+                logger.info("登录状态快照已过期, 环境ID: {}", environmentId);
+                invalidate(environmentId);
+                return Optional.empty();
+            }
+            return Optional.of(path);
+        } catch (IOException e) {
+            logger.warn("读取登录状态快照失败, 环境ID: {}: {}", environmentId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 保存浏览器上下文的存储状态，先写临时文件再替换，避免中途失败留下不完整的快照
+     * @param context 已登录的浏览器上下文
+     * @param environmentId 浏览器环境ID
+     */
+    public void save(BrowserContext context, Long environmentId) {
+        Path path = path(environmentId);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            context.storageState(new BrowserContext.StorageStateOptions().setPath(temp));
+            restrictPermissions(temp);
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.info("保存登录状态快照成功, 环境ID: {}", environmentId);
+        } catch (Exception e) {
+            logger.warn("保存登录状态快照失败, 环境ID: {}: {}", environmentId, e.getMessage());
+        }
+    }
+
+    /**
+     * 删除快照（会话已失效或环境被删除时）
+     * @param environmentId 浏览器环境ID
+     */
+    public void invalidate(Long environmentId) {
+        try {
+            if (Files.deleteIfExists(path(environmentId))) {
+                logger.info("删除登录状态快照, 环境ID: {}", environmentId);
+            }
+        } catch (IOException e) {
+            logger.warn("删除登录状态快照失败, 环境ID: {}: {}", environmentId, e.getMessage());
+        }
+    }
+
+    private Path path(Long environmentId) {
+        return Paths.get(stateDir, "env-" + environmentId + ".json");
+    }
+
+    // 快照包含登录凭证，仅允许当前用户读写（不支持POSIX权限的文件系统忽略）
+    private static void restrictPermissions(Path path) {
+        try {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException | IOException e) {
+            logger.debug("无法设置快照文件权限: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.xhs.config;
+
+import com.xhs.ai.AIProviderFactory;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI服务HTTP客户端配置
+ * 所有AI适配器共享同一个带连接池的HTTP客户端，避免每次请求重新建立TCP/TLS连接
+ */
+@Configuration
+public class AIHttpClientConfig {
+
+    @Value("${ai.http.max-total:50}")
+    private int maxTotal;
+
+    @Value("${ai.http.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${ai.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${ai.http.read-timeout-ms:120000}")
+    private long readTimeoutMs;
+
+    @Value("${ai.http.connection-request-timeout-ms:5000}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${ai.http.idle-evict-seconds:60}")
+    private long idleEvictSeconds;
+
+    @Value("${ai.http.time-to-live-seconds:300}")
+    private long timeToLiveSeconds;
+
+    @Bean
+    public PoolingHttpClientConnectionManager aiConnectionManager() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                .build();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient aiHttpClient(PoolingHttpClientConnectionManager aiConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(aiConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .build();
+
+        // 交给工厂，由工厂创建的所有适配器共享
+        AIProviderFactory.setHttpClient(httpClient);
+        return httpClient;
+    }
+}
@@ -0,0 +1,42 @@
+package com.xhs.config;
+
+import com.xhs.ai.AIProviderFactory;
+import com.xhs.ai.AIProviderRegistrar;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI服务商注册与适配器缓存配置
+ */
+@Configuration
+public class AIProviderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AIProviderConfig.class);
+
+    private final ObjectProvider<AIProviderRegistrar> registrars;
+
+    @Value("${ai.adapter-cache.max-size:64}")
+    private int cacheMaxSize;
+
+    @Value("${ai.adapter-cache.idle-timeout-minutes:30}")
+    private long cacheIdleTimeoutMinutes;
+
+    public AIProviderConfig(ObjectProvider<AIProviderRegistrar> registrars) {
+        this.registrars = registrars;
+    }
+
+    @PostConstruct
+    public void init() {
+        AIProviderFactory.getAdapterCache().setMaxSize(cacheMaxSize);
+        AIProviderFactory.getAdapterCache().setIdleTimeoutMs(cacheIdleTimeoutMinutes * 60 * 1000L);
+
+        registrars.orderedStream().forEach(registrar -> {
+            AIProviderFactory.registerProvider(registrar.getProviderType(), registrar.getProviderInfo());
+            logger.info("注册AI服务商: {}", registrar.getProviderType());
+        });
+    }
+}
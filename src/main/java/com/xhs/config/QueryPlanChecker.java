@@ -0,0 +1,159 @@
+package com.xhs.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 热点查询的执行计划检查
+ * 启动后对到期任务扫描、领取、发布历史和列表分页查询执行 EXPLAIN，核对使用的索引是否符合预期，
+ * 索引被删除或查询改写后退化为全表扫描时输出告警（可配置为启动失败）。
+ * 表中数据过少时优化器可能直接全表扫描，这类表跳过检查
+ */
+@Component
+public class QueryPlanChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanChecker.class);
+
+    @Value("${db.query-plan-check.enabled:true}")
+    private boolean enabled;
+
+    // 执行计划不符合预期时是否让启动失败（用于测试/预发环境）
+    @Value("${db.query-plan-check.fail-on-mismatch:false}")
+    private boolean failOnMismatch;
+
+    // 表的估算行数少于该值时跳过检查
+    @Value("${db.query-plan-check.min-rows:1000}")
+    private long minRows;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 待检查的查询，SQL 与仓库中的 JPQL 查询对应
+     * @param name 查询名称
+     * @param table 查询的表
+     * @param sql 查询语句
+     * @param expectedKey 预期使用的索引
+     */
+    record PlanCheck(String name, String table, String sql, String expectedKey) {
+    }
+
+    static final List<PlanCheck> CHECKS = List.of(
+            new PlanCheck("到期任务扫描", "scheduled_tasks",
+                    "select id from scheduled_tasks where status = 'PENDING' and scheduled_time <= now() " +
+                            "and (next_retry_time is null or next_retry_time <= now()) order by scheduled_time limit 50",
+                    "idx_task_status_time"),
+            new PlanCheck("按领取凭证查找任务", "scheduled_tasks",
+                    "select * from scheduled_tasks where claim_token = '00000000-0000-0000-0000-000000000000'",
+                    "idx_task_claim_token"),
+            new PlanCheck("任务列表-全部", "scheduled_tasks",
+                    "select id from scheduled_tasks where id < 9223372036854775807 order by id desc limit 21",
+                    "PRIMARY"),
+            new PlanCheck("任务列表-按用户", "scheduled_tasks",
+                    "select id from scheduled_tasks where user_id = 1 and id < 9223372036854775807 order by id desc limit 21",
+                    "idx_task_user_id"),
+            new PlanCheck("任务列表-按状态", "scheduled_tasks",
+                    "select id from scheduled_tasks where status = 'PENDING' and id < 9223372036854775807 order by id desc limit 21",
+                    "idx_task_status_id"),
+            new PlanCheck("任务列表-按用户和状态", "scheduled_tasks",
+                    "select id from scheduled_tasks where user_id = 1 and status = 'PENDING' and id < 9223372036854775807 " +
+                            "order by id desc limit 21",
+                    "idx_task_user_status"),
+            new PlanCheck("按时间统计发布数量", "publish_history",
+                    "select user_id, count(*) from publish_history where created_at >= now() - interval 1 day " +
+                            "and created_at < now() group by user_id",
+                    "idx_history_created_at"),
+            new PlanCheck("按任务查找发布记录", "publish_history",
+                    "select id from publish_history where task_id = 1 and created_at >= now() - interval 1 day " +
+                            "order by created_at desc limit 1",
+                    "idx_history_task_created_at"),
+            new PlanCheck("发布历史列表-全部", "publish_history",
+                    "select id from publish_history where id < 9223372036854775807 order by id desc limit 21",
+                    "PRIMARY"),
+            new PlanCheck("发布历史列表-按用户", "publish_history",
+                    "select id from publish_history where user_id = 1 and id < 9223372036854775807 order by id desc limit 21",
+                    "idx_history_user_id"),
+            new PlanCheck("发布历史列表-按状态", "publish_history",
+                    "select id from publish_history where status = 'SUCCESS' and id < 9223372036854775807 order by id desc limit 21",
+                    "idx_history_status_id"),
+            new PlanCheck("发布历史列表-按用户和状态", "publish_history",
+                    "select id from publish_history where user_id = 1 and status = 'SUCCESS' and id < 9223372036854775807 " +
+                            "order by id desc limit 21",
+                    "idx_history_user_status")
+    );
+
+    // 构造函数
+    public QueryPlanChecker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate, "jdbcTemplate must not be null");
+    }
+
+    /**
+     * 应用启动后检查热点查询的执行计划
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        List<String> mismatches = check();
+        if (!mismatches.isEmpty() && failOnMismatch) {
+            throw new IllegalStateException("热点查询未使用预期索引: " + String.join("; ", mismatches));
+        }
+    }
+
+    /**
+     * 对热点查询执行 EXPLAIN 并核对使用的索引
+     * @return 不符合预期的查询说明，全部符合时为空
+     */
+    public List<String> check() {
+        List<String> mismatches = new ArrayList<>();
+        for (PlanCheck planCheck : CHECKS) {
+            try {
+                long rows = estimatedRows(planCheck.table());
+                if (rows < minRows) {
+                    logger.debug("表 {} 估算行数 {} 少于 {}, 跳过执行计划检查: {}", planCheck.table(), rows, minRows, planCheck.name());
+                    continue;
+                }
+                String key = explainKey(planCheck);
+                if (!planCheck.expectedKey().equals(key)) {
+                    String mismatch = planCheck.name() + " 使用索引 " + key + ", 预期 " + planCheck.expectedKey();
+                    logger.warn("执行计划不符合预期: {}", mismatch);
+                    mismatches.add(mismatch);
+                }
+            } catch (Exception e) {
+                logger.warn("检查执行计划失败: {}: {}", planCheck.name(), e.getMessage());
+            }
+        }
+        if (mismatches.isEmpty()) {
+            logger.info("热点查询执行计划检查完成");
+        }
+        return mismatches;
+    }
+
+    // 执行计划中该表使用的索引，全表扫描时为null
+    private String explainKey(PlanCheck planCheck) {
+        for (Map<String, Object> row : jdbcTemplate.queryForList("explain " + planCheck.sql())) {
+            if (planCheck.table().equals(row.get("table"))) {
+                Object key = row.get("key");
+                return key != null ? key.toString() : null;
+            }
+        }
+        return null;
+    }
+
+    private long estimatedRows(String table) {
+        Long rows = jdbcTemplate.queryForObject(
+                "select table_rows from information_schema.tables where table_schema = database() and table_name = ?",
+                Long.class, table);
+        return rows != null ? rows : 0;
+    }
+}
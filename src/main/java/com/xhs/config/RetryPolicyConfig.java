@@ -0,0 +1,42 @@
+package com.xhs.config;
+
+import com.xhs.service.PublishOutcomeUnknownException;
+import com.xhs.utils.RetryPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 重试策略配置
+ * 发布失败时按策略重新调度；用户/浏览器环境不存在等配置类错误（IllegalArgumentException）
+ * 和已点击发布但结果未知（PublishOutcomeUnknownException）不重试
+ */
+@Configuration
+public class RetryPolicyConfig {
+
+    @Value("${retry.publish.max-attempts:4}")
+    private int publishMaxAttempts;
+
+    @Value("${retry.publish.base-delay-seconds:60}")
+    private long publishBaseDelaySeconds;
+
+    @Value("${retry.publish.max-delay-seconds:1800}")
+    private long publishMaxDelaySeconds;
+
+    // 可选：错误信息包含其中任一关键字时也不重试，致命错误以异常类型为准
+    @Value("${retry.publish.fatal-messages:}")
+    private List<String> publishFatalMessages;
+
+    @Value("${retry.publish.budget-per-hour:30}")
+    private int publishBudgetPerHour;
+
+    @Bean
+    public RetryPolicy publishRetryPolicy() {
+        return new RetryPolicy("publish", publishMaxAttempts, Duration.ofSeconds(publishBaseDelaySeconds),
+                Duration.ofSeconds(publishMaxDelaySeconds), List.of(IllegalArgumentException.class, PublishOutcomeUnknownException.class),
+                publishFatalMessages, publishBudgetPerHour, Duration.ofHours(1));
+    }
+}
@@ -0,0 +1,46 @@
+package com.xhs.config;
+
+import com.xhs.utils.KeyedTaskExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * I/O密集型任务执行器配置
+ * AI请求按服务商限流，发布任务按用户（即其默认浏览器环境）限流
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+    @Value("${executor.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    @Value("${executor.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    @Value("${executor.ai.platform-pool-size:5}")
+    private int aiPlatformPoolSize;
+
+    @Value("${executor.ai.permits-per-provider:8}")
+    private int aiPermitsPerProvider;
+
+    @Value("${executor.publish.platform-pool-size:10}")
+    private int publishPlatformPoolSize;
+
+    @Value("${executor.publish.permits-per-browser:1}")
+    private int publishPermitsPerBrowser;
+
+    @Bean
+    public KeyedTaskExecutor aiTaskExecutor() {
+        return new KeyedTaskExecutor("ai", virtualThreads, aiPlatformPoolSize, aiPermitsPerProvider,
+                Duration.ofSeconds(shutdownTimeoutSeconds));
+    }
+
+    @Bean
+    public KeyedTaskExecutor publishTaskExecutor() {
+        return new KeyedTaskExecutor("publish", virtualThreads, publishPlatformPoolSize, publishPermitsPerBrowser,
+                Duration.ofSeconds(shutdownTimeoutSeconds));
+    }
+}
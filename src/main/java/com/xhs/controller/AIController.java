@@ -1,9 +1,12 @@
 package com.xhs.controller;
 
 import com.xhs.service.AIService;
+import com.xhs.utils.SseStreamHelper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -32,6 +35,19 @@ public class AIController {
         }
     }
 
+    // 流式生成内容
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamContent(
+            @RequestParam String providerType,
+            @RequestParam String apiKey,
+            @RequestParam String prompt,
+            @RequestBody(required = false) Map<String, Object> params) {
+        Map<String, Object> requestParams = params != null ? params : Map.of();
+        return SseStreamHelper.stream(
+                onChunk -> aiService.streamContent(providerType, apiKey, prompt, requestParams, onChunk),
+                "AI生成内容失败");
+    }
+
     // 测试AI连接
     @PostMapping("/test-connection")
     public ResponseEntity<Map<String, Object>> testAIConnection(@RequestBody Map<String, String> request) {
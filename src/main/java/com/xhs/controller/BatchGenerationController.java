@@ -0,0 +1,82 @@
+package com.xhs.controller;
+
+import com.xhs.entity.BatchGenerationItem;
+import com.xhs.entity.BatchGenerationJob;
+import com.xhs.service.BatchGenerationService;
+import com.xhs.utils.BatchTopicReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/content/batch")
+@RequiredArgsConstructor
+public class BatchGenerationController {
+
+    private final BatchGenerationService batchGenerationService;
+
+    // 创建批量生成任务（JSON：{"topics": [...], "imageType": "cover"}）
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createBatchJob(
+            @RequestParam String providerType,
+            @RequestParam String apiKey,
+            @RequestBody Map<String, Object> requestBody) {
+        try {
+            Object topicsValue = requestBody.get("topics");
+            if (!(topicsValue instanceof List<?> topicList)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "topics 必须是字符串数组"));
+            }
+            List<String> topics = topicList.stream().map(topic -> topic == null ? null : topic.toString()).toList();
+            String imageType = (String) requestBody.getOrDefault("imageType", "cover");
+
+            BatchGenerationJob job = batchGenerationService.createJob(providerType, apiKey, topics, imageType);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 创建批量生成任务（上传CSV或JSONL文件）
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadBatchJob(
+            @RequestParam String providerType,
+            @RequestParam String apiKey,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "cover") String imageType) {
+        try {
+            String text = new String(file.getBytes(), StandardCharsets.UTF_8);
+            List<String> topics = BatchTopicReader.read(file.getOriginalFilename(), text);
+
+            BatchGenerationJob job = batchGenerationService.createJob(providerType, apiKey, topics, imageType);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "批量任务创建失败: " + e.getMessage()));
+        }
+    }
+
+    // 查询批量任务进度
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BatchGenerationJob> getBatchJob(@PathVariable Long jobId) {
+        return batchGenerationService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // 查询批量任务结果（可按状态过滤：PENDING/RUNNING/SUCCESS/FAILED）
+    @GetMapping("/{jobId}/items")
+    public ResponseEntity<List<BatchGenerationItem>> getBatchJobItems(
+            @PathVariable Long jobId,
+            @RequestParam(required = false) String status) {
+        if (batchGenerationService.getJob(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(batchGenerationService.getJobItems(jobId, status));
+    }
+}
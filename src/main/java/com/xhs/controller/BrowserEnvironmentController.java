@@ -1,5 +1,6 @@
 package com.xhs.controller;
 
+import com.xhs.browser.BrowserContextManager;
 import com.xhs.entity.BrowserEnvironment;
 import com.xhs.service.BrowserEnvironmentService;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -16,6 +18,7 @@ import java.util.Optional;
 public class BrowserEnvironmentController {
 
     private final BrowserEnvironmentService browserEnvironmentService;
+    private final BrowserContextManager browserContextManager;
 
     // 获取所有浏览器环境
     @GetMapping
@@ -32,6 +35,12 @@ public class BrowserEnvironmentController {
         return ResponseEntity.ok(environments);
     }
 
+    // 获取浏览器上下文及 Chromium 进程内存统计
+    @GetMapping("/contexts/stats")
+    public ResponseEntity<Map<String, Object>> getContextStats() {
+        return ResponseEntity.ok(browserContextManager.getStats());
+    }
+
     // 获取单个浏览器环境
     @GetMapping("/{id}")
     public ResponseEntity<BrowserEnvironment> getBrowserEnvironmentById(@PathVariable Long id) {
@@ -1,18 +1,29 @@
 package com.xhs.controller;
 
 import com.xhs.analysis.ContentAnalysis;
+import com.xhs.dto.GenerationResult;
+import com.xhs.dto.TitleCandidate;
 import com.xhs.service.ContentGenerationService;
+import com.xhs.utils.SseStreamHelper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 @RestController
 @RequestMapping("/api/content")
 @RequiredArgsConstructor
 public class ContentGenerationController {
 
+    // 缓存命中响应头：HIT-memory、HIT-database 或 MISS
+    private static final String CACHE_HEADER = "X-AI-Cache";
+
     private final ContentGenerationService contentGenerationService;
 
     // 分析内容
@@ -57,13 +68,31 @@ public class ContentGenerationController {
             ContentAnalysis analysis = contentGenerationService.analyzeContent(originalText, imageType);
             
             // 生成小红书文案
-            String result = contentGenerationService.generateXiaohongshuContent(providerType, apiKey, analysis, originalText);
-            return ResponseEntity.ok(result);
+            GenerationResult result = contentGenerationService.generateXiaohongshuContent(providerType, apiKey, analysis, originalText);
+            return ResponseEntity.ok()
+                    .header(CACHE_HEADER, cacheStatus(result))
+                    .body(result.getContent());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("小红书文案生成失败: " + e.getMessage());
         }
     }
 
+    // 流式生成小红书文案
+    @PostMapping(value = "/xiaohongshu/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamXiaohongshuContent(
+            @RequestParam String providerType,
+            @RequestParam String apiKey,
+            @RequestBody Map<String, Object> requestBody) {
+        String originalText = (String) requestBody.get("originalText");
+        String imageType = (String) requestBody.getOrDefault("imageType", "cover");
+
+        return SseStreamHelper.stream(onChunk -> {
+            // 先分析内容（本地计算，耗时可忽略）
+            ContentAnalysis analysis = contentGenerationService.analyzeContent(originalText, imageType);
+            return contentGenerationService.streamXiaohongshuContent(providerType, apiKey, analysis, originalText, onChunk);
+        }, "小红书文案生成失败");
+    }
+
     // 生成标题
     @PostMapping("/title/generate")
     public ResponseEntity<String> generateTitle(
@@ -71,8 +100,10 @@ public class ContentGenerationController {
             @RequestParam String apiKey,
             @RequestParam String content) {
         try {
-            String result = contentGenerationService.generateTitle(providerType, apiKey, content);
-            return ResponseEntity.ok(result);
+            GenerationResult result = contentGenerationService.generateTitle(providerType, apiKey, content);
+            return ResponseEntity.ok()
+                    .header(CACHE_HEADER, cacheStatus(result))
+                    .body(result.getContent());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("标题生成失败: " + e.getMessage());
         }
@@ -84,27 +115,88 @@ public class ContentGenerationController {
             @RequestParam String providerType,
             @RequestParam String apiKey,
             @RequestParam String text,
-            @RequestParam(defaultValue = "cover") String imageType) {
+            @RequestParam(defaultValue = "cover") String imageType,
+            @RequestParam(defaultValue = "false") boolean pipelined,
+            @RequestParam(defaultValue = "3") int titleCandidates,
+            @RequestParam(defaultValue = "false") boolean refineTitle) {
         try {
             // 分析内容
             ContentAnalysis analysis = contentGenerationService.analyzeContent(text, imageType);
+
+            if (pipelined) {
+                return analyzeAndGeneratePipelined(providerType, apiKey, text, analysis, titleCandidates, refineTitle);
+            }
             
             // 生成小红书文案
-            String generatedContent = contentGenerationService.generateXiaohongshuContent(providerType, apiKey, analysis, text);
+            GenerationResult generatedContent = contentGenerationService.generateXiaohongshuContent(providerType, apiKey, analysis, text);
             
             // 生成标题
-            String generatedTitle = contentGenerationService.generateTitle(providerType, apiKey, generatedContent);
+            GenerationResult generatedTitle = contentGenerationService.generateTitle(providerType, apiKey, generatedContent.getContent());
             
             // 构建响应
             Map<String, Object> response = Map.of(
                     "analysis", analysis,
-                    "generatedContent", generatedContent,
-                    "generatedTitle", generatedTitle
+                    "generatedContent", generatedContent.getContent(),
+                    "generatedTitle", generatedTitle.getContent()
             );
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .header(CACHE_HEADER + "-Content", cacheStatus(generatedContent))
+                    .header(CACHE_HEADER + "-Title", cacheStatus(generatedTitle))
+                    .body(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "分析和生成失败: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // 流水线模式：文案与多个候选标题同时生成，标题只依赖原始文本和分析结果；可选在文案生成后微调最佳标题
+    private ResponseEntity<Map<String, Object>> analyzeAndGeneratePipelined(
+            String providerType, String apiKey, String text, ContentAnalysis analysis,
+            int titleCandidates, boolean refineTitle) throws Exception {
+        CompletableFuture<GenerationResult> contentFuture =
+                contentGenerationService.generateXiaohongshuContentAsync(providerType, apiKey, analysis, text);
+        CompletableFuture<List<TitleCandidate>> titleFuture =
+                contentGenerationService.generateTitleCandidatesAsync(providerType, apiKey, analysis, text, titleCandidates);
+
+        GenerationResult generatedContent = await(contentFuture);
+        List<TitleCandidate> candidates = await(titleFuture);
+
+        String generatedTitle = candidates.get(0).getTitle();
+        TitleCandidate best = candidates.get(0);
+        String titleCache = best.isCacheHit() ? "HIT-" + best.getCacheTier() : "MISS";
+        if (refineTitle) {
+            GenerationResult refined = contentGenerationService.refineTitle(providerType, apiKey, generatedTitle, generatedContent.getContent());
+            generatedTitle = refined.getContent();
+            titleCache = cacheStatus(refined);
+        }
+
+        Map<String, Object> response = Map.of(
+                "analysis", analysis,
+                "generatedContent", generatedContent.getContent(),
+                "generatedTitle", generatedTitle,
+                "titleCandidates", candidates
+        );
+
+        return ResponseEntity.ok()
+                .header(CACHE_HEADER + "-Content", cacheStatus(generatedContent))
+                .header(CACHE_HEADER + "-Title", titleCache)
+                .body(response);
+    }
+
+    // 等待异步结果，抛出原始异常
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // 缓存状态
+    private String cacheStatus(GenerationResult result) {
+        return result.isCacheHit() ? "HIT-" + result.getCacheTier() : "MISS";
+    }
+}
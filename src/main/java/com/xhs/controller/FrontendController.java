@@ -1,5 +1,7 @@
 package com.xhs.controller;
 
+import com.xhs.dto.DailyPublishStat;
+import com.xhs.dto.UserPublishStat;
 import com.xhs.service.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,29 +18,14 @@ import java.util.Map;
 public class FrontendController {
 
     private final ContentGenerationService contentGenerationService;
-    private final UserService userService;
-    private final PublishService publishService;
-    private final ScheduledTaskService scheduledTaskService;
+    private final StatsService statsService;
 
     // ==================== 首页 API ====================
     
     @GetMapping("/home/stats")
     public ResponseEntity<Map<String, Object>> getHomeStats() {
         try {
-            long totalUsers = userService.getAllUsers().size();
-            long totalPublished = publishService.getPublishHistory().size();
-            long totalTasks = scheduledTaskService.getAllScheduledTasks().size();
-            long activeUsers = userService.getAllUsers().stream()
-                .filter(u -> u.getIsActive() != null && u.getIsActive())
-                .count();
-            
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalUsers", totalUsers);
-            stats.put("totalPublished", totalPublished);
-            stats.put("totalTasks", totalTasks);
-            stats.put("activeUsers", activeUsers);
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(statsService.getHomeStats());
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -46,6 +33,16 @@ public class FrontendController {
         }
     }
 
+    @GetMapping("/home/stats/daily")
+    public ResponseEntity<List<DailyPublishStat>> getDailyPublishStats(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(statsService.getDailyPublishStats(days));
+    }
+
+    @GetMapping("/home/stats/users")
+    public ResponseEntity<List<UserPublishStat>> getUserPublishStats() {
+        return ResponseEntity.ok(statsService.getUserPublishStats());
+    }
+
     @PostMapping("/home/generate")
     public ResponseEntity<Map<String, Object>> generateContent(@RequestBody Map<String, Object> request) {
         try {
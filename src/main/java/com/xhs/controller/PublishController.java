@@ -1,5 +1,7 @@
 package com.xhs.controller;
 
+import com.xhs.dto.CursorPage;
+import com.xhs.dto.PublishHistorySummary;
 import com.xhs.entity.PublishHistory;
 import com.xhs.service.PublishService;
 import lombok.RequiredArgsConstructor;
@@ -37,14 +39,26 @@ public class PublishController {
         }
     }
 
-    // 获取用户的发布历史
+    // 分页获取发布历史（列表项不含正文）
+    @GetMapping("/history")
+    public ResponseEntity<CursorPage<PublishHistorySummary>> getPublishHistory(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(publishService.getPublishHistorySummaries(null, status, cursor, size));
+    }
+
+    // 分页获取用户的发布历史（列表项不含正文）
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PublishHistory>> getPublishHistory(@PathVariable Long userId) {
-        List<PublishHistory> publishHistories = publishService.getPublishHistory(userId);
-        return ResponseEntity.ok(publishHistories);
+    public ResponseEntity<CursorPage<PublishHistorySummary>> getPublishHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(publishService.getPublishHistorySummaries(userId, status, cursor, size));
     }
 
-    // 获取发布历史详情
+    // 获取发布历史详情（含正文）
     @GetMapping("/{historyId}")
     public ResponseEntity<PublishHistory> getPublishHistoryById(@PathVariable Long historyId) {
         PublishHistory publishHistory = publishService.getPublishHistoryById(historyId);
@@ -1,6 +1,9 @@
 package com.xhs.controller;
 
+import com.xhs.dto.CursorPage;
+import com.xhs.dto.ScheduledTaskSummary;
 import com.xhs.entity.ScheduledTask;
+import com.xhs.entity.ScheduledTaskOccurrence;
 import com.xhs.service.ScheduledTaskService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,21 +20,26 @@ public class ScheduledTaskController {
 
     private final ScheduledTaskService scheduledTaskService;
 
-    // 获取所有定时任务
+    // 分页获取定时任务（列表项不含正文）
     @GetMapping
-    public ResponseEntity<List<ScheduledTask>> getAllScheduledTasks() {
-        List<ScheduledTask> tasks = scheduledTaskService.getAllScheduledTasks();
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<CursorPage<ScheduledTaskSummary>> getAllScheduledTasks(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(scheduledTaskService.getTaskSummaries(null, status, cursor, size));
     }
 
-    // 获取用户的所有定时任务
+    // 分页获取用户的定时任务（列表项不含正文）
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ScheduledTask>> getScheduledTasksByUserId(@PathVariable Long userId) {
-        List<ScheduledTask> tasks = scheduledTaskService.getScheduledTasksByUserId(userId);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<CursorPage<ScheduledTaskSummary>> getScheduledTasksByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(scheduledTaskService.getTaskSummaries(userId, status, cursor, size));
     }
 
-    // 获取单个定时任务
+    // 获取单个定时任务（含正文）
     @GetMapping("/{taskId}")
     public ResponseEntity<ScheduledTask> getScheduledTaskById(@PathVariable Long taskId) {
         return scheduledTaskService.getScheduledTaskById(taskId)
@@ -67,6 +75,20 @@ public class ScheduledTaskController {
         return ResponseEntity.ok(result);
     }
 
+    // 重放死信任务
+    @PostMapping("/{taskId}/replay")
+    public ResponseEntity<Boolean> replayTask(@PathVariable Long taskId) {
+        boolean result = scheduledTaskService.replayTask(taskId);
+        return ResponseEntity.ok(result);
+    }
+
+    // 重放所有死信任务
+    @PostMapping("/dead-letter/replay")
+    public ResponseEntity<Integer> replayDeadLetterTasks(@RequestParam(required = false) Long userId) {
+        int replayed = scheduledTaskService.replayDeadLetterTasks(userId);
+        return ResponseEntity.ok(replayed);
+    }
+
     // 暂停定时任务
     @PostMapping("/{taskId}/pause")
     public ResponseEntity<Void> pauseTask(@PathVariable Long taskId) {
@@ -81,18 +103,23 @@ public class ScheduledTaskController {
         return ResponseEntity.noContent().build();
     }
 
-    // 获取指定状态的定时任务
+    // 分页获取指定状态的定时任务
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<ScheduledTask>> getTasksByStatus(@PathVariable String status) {
-        List<ScheduledTask> tasks = scheduledTaskService.getTasksByStatus(status);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<CursorPage<ScheduledTaskSummary>> getTasksByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(scheduledTaskService.getTaskSummaries(null, status, cursor, size));
     }
 
-    // 获取用户指定状态的定时任务
+    // 分页获取用户指定状态的定时任务
     @GetMapping("/user/{userId}/status/{status}")
-    public ResponseEntity<List<ScheduledTask>> getTasksByUserIdAndStatus(@PathVariable Long userId, @PathVariable String status) {
-        List<ScheduledTask> tasks = scheduledTaskService.getTasksByUserIdAndStatus(userId, status);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<CursorPage<ScheduledTaskSummary>> getTasksByUserIdAndStatus(
+            @PathVariable Long userId,
+            @PathVariable String status,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(scheduledTaskService.getTaskSummaries(userId, status, cursor, size));
     }
 
     // 获取指定时间范围内的定时任务
@@ -103,4 +130,21 @@ public class ScheduledTaskController {
         List<ScheduledTask> tasks = scheduledTaskService.getTasksBetweenTimes(startTime, endTime);
         return ResponseEntity.ok(tasks);
     }
+
+    // 获取重复任务已展开的执行时间点
+    @GetMapping("/{taskId}/occurrences")
+    public ResponseEntity<List<ScheduledTaskOccurrence>> getTaskOccurrences(@PathVariable Long taskId) {
+        List<ScheduledTaskOccurrence> occurrences = scheduledTaskService.getTaskOccurrences(taskId);
+        return ResponseEntity.ok(occurrences);
+    }
+
+    // 获取指定时间范围内的执行时间点
+    @GetMapping("/occurrences")
+    public ResponseEntity<List<ScheduledTaskOccurrence>> getOccurrencesBetweenTimes(
+            @RequestParam(required = false) Long userId,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime) {
+        List<ScheduledTaskOccurrence> occurrences = scheduledTaskService.getOccurrencesBetweenTimes(userId, startTime, endTime);
+        return ResponseEntity.ok(occurrences);
+    }
 }
\ No newline at end of file
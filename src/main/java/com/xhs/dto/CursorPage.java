@@ -0,0 +1,54 @@
+package com.xhs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果（按ID倒序，下一页以 nextCursor 作为游标，避免大偏移量的 offset 扫描）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    // 默认每页条数与上限
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 200;
+
+    private List<T> items;
+
+    // 下一页游标（本页最后一条的ID），没有更多数据时为null
+    private Long nextCursor;
+
+    private boolean hasMore;
+
+    /**
+     * 规范化每页条数
+     * @param size 请求的条数
+     * @return 1到上限之间的条数
+     */
+    public static int normalizeSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * 由多查询一条的结果构建分页
+     * @param rows 查询结果（最多 size + 1 条）
+     * @param size 每页条数
+     * @param idGetter 取ID的方法
+     * @return 分页结果
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idGetter) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        Long nextCursor = hasMore ? idGetter.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,30 @@
+package com.xhs.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 每日发布统计
+ */
+@Data
+@NoArgsConstructor
+public class DailyPublishStat {
+
+    private LocalDate date;
+    private long totalCount;
+    private long successCount;
+    private long failedCount;
+
+    // 成功率（成功 / 已结束），没有已结束的发布时为null
+    private Double successRate;
+
+    public DailyPublishStat(LocalDate date, Long totalCount, Long successCount, Long failedCount) {
+        this.date = date;
+        this.totalCount = totalCount != null ? totalCount : 0;
+        this.successCount = successCount != null ? successCount : 0;
+        this.failedCount = failedCount != null ? failedCount : 0;
+        this.successRate = UserPublishStat.successRate(this.successCount, this.failedCount);
+    }
+}
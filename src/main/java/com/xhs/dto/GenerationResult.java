@@ -0,0 +1,26 @@
+package com.xhs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AI生成结果（含缓存命中信息）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerationResult {
+
+    private String content;
+
+    // 是否命中缓存
+    private boolean cacheHit;
+
+    // 命中的缓存层级：memory、database，未命中时为null
+    private String cacheTier;
+
+    public static GenerationResult miss(String content) {
+        return new GenerationResult(content, false, null);
+    }
+}
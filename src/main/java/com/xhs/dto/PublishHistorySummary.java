@@ -0,0 +1,25 @@
+package com.xhs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发布历史列表项（不含正文，详情通过 /api/publish/{historyId} 获取）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublishHistorySummary {
+
+    private Long id;
+    private Long userId;
+    private String title;
+    private String status;
+    private String errorMessage;
+    private LocalDateTime scheduledTime;
+    private LocalDateTime publishedTime;
+    private LocalDateTime createdAt;
+}
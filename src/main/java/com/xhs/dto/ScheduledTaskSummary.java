@@ -0,0 +1,28 @@
+package com.xhs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务列表项（不含正文和图片，详情通过 /api/scheduled-tasks/{taskId} 获取）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTaskSummary {
+
+    private Long id;
+    private Long userId;
+    private String title;
+    private String status;
+    private LocalDateTime scheduledTime;
+    private LocalDateTime executedTime;
+    private String recurrenceRule;
+    private Integer retryCount;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.xhs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 候选标题（含排序得分）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TitleCandidate {
+
+    private String title;
+
+    // 生成角度，如 结果收获、提问式
+    private String angle;
+
+    // 排序得分，越高越好
+    private double score;
+
+    // 是否命中缓存
+    private boolean cacheHit;
+
+    // 命中的缓存层级：memory、database，未命中时为null
+    private String cacheTier;
+}
@@ -0,0 +1,42 @@
+package com.xhs.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户发布统计
+ */
+@Data
+@NoArgsConstructor
+public class UserPublishStat {
+
+    private Long userId;
+    private long totalCount;
+    private long successCount;
+    private long failedCount;
+
+    // 成功率（成功 / 已结束），没有已结束的发布时为null
+    private Double successRate;
+
+    public UserPublishStat(Long userId, Long totalCount, Long successCount, Long failedCount) {
+        this.userId = userId;
+        this.totalCount = totalCount != null ? totalCount : 0;
+        this.successCount = successCount != null ? successCount : 0;
+        this.failedCount = failedCount != null ? failedCount : 0;
+        this.successRate = successRate(this.successCount, this.failedCount);
+    }
+
+    /**
+     * 计算成功率，保留4位小数
+     * @param successCount 成功数
+     * @param failedCount 失败数
+     * @return 成功率，没有已结束的发布时为null
+     */
+    public static Double successRate(long successCount, long failedCount) {
+        long finished = successCount + failedCount;
+        if (finished == 0) {
+            return null;
+        }
+        return Math.round(successCount * 10000.0 / finished) / 10000.0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.xhs.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ai_response_cache")
+public class AIResponseCache {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String cacheKey;
+
+    @Column(length = 50)
+    private String providerType;
+
+    @Column(length = 100)
+    private String model;
+
+    @Column(columnDefinition = "mediumtext")
+    private String response;
+
+    private Integer hitCount = 0;
+
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,55 @@
+package com.xhs.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "batch_generation_items")
+public class BatchGenerationItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    private BatchGenerationJob job;
+
+    private Integer itemIndex;
+
+    @Column(columnDefinition = "text")
+    private String topic;
+
+    @Column(length = 20)
+    private String status;
+
+    @Column(length = 200)
+    private String title;
+
+    @Column(columnDefinition = "text")
+    private String content;
+
+    private Boolean cacheHit = false;
+
+    private Integer attempts = 0;
+
+    @Column(length = 500)
+    private String errorMessage;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
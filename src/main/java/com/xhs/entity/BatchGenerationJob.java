@@ -0,0 +1,43 @@
+package com.xhs.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "batch_generation_jobs")
+public class BatchGenerationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 50)
+    private String providerType;
+
+    @Column(length = 20)
+    private String imageType;
+
+    @Column(length = 20)
+    private String status;
+
+    private Integer totalCount = 0;
+
+    private Integer completedCount = 0;
+
+    private Integer failedCount = 0;
+
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
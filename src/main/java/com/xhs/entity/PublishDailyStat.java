@@ -0,0 +1,40 @@
+package com.xhs.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 发布统计汇总（按天、按用户），由定时任务从发布历史定期刷新
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "publish_daily_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_daily_stat_date_user", columnNames = {"stat_date", "user_id"}),
+        indexes = @Index(name = "idx_daily_stat_user", columnList = "user_id"))
+public class PublishDailyStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private Integer totalCount = 0;
+
+    private Integer successCount = 0;
+
+    private Integer failedCount = 0;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
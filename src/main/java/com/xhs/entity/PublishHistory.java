@@ -11,7 +11,15 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "publish_history")
+@Table(name = "publish_history",
+        indexes = {
+                @Index(name = "idx_history_created_at", columnList = "created_at"),
+                @Index(name = "idx_history_user_status", columnList = "user_id, status"),
+                @Index(name = "idx_history_user_created_at", columnList = "user_id, created_at"),
+                @Index(name = "idx_history_task_created_at", columnList = "task_id, created_at"),
+                @Index(name = "idx_history_user_id", columnList = "user_id, id"),
+                @Index(name = "idx_history_status_id", columnList = "status, id")
+        })
 public class PublishHistory {
 
     @Id
@@ -22,6 +30,9 @@ public class PublishHistory {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // 来源定时任务ID，手动发布时为空
+    private Long taskId;
+
     @Column(length = 200)
     private String title;
 
@@ -34,6 +45,14 @@ public class PublishHistory {
     @Column(length = 500)
     private String errorMessage;
 
+    // 发布进行到的阶段，失败时为失败所在的阶段
+    @Column(length = 50)
+    private String stage;
+
+    // 发布接口返回的笔记ID
+    @Column(length = 64)
+    private String noteId;
+
     private LocalDateTime scheduledTime;
 
     private LocalDateTime publishedTime;
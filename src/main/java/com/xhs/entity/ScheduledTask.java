@@ -7,11 +7,19 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "scheduled_tasks")
+@Table(name = "scheduled_tasks",
+        indexes = {
+                @Index(name = "idx_task_status_time", columnList = "status, scheduled_time"),
+                @Index(name = "idx_task_user_status", columnList = "user_id, status"),
+                @Index(name = "idx_task_claim_token", columnList = "claim_token"),
+                @Index(name = "idx_task_user_id", columnList = "user_id, id"),
+                @Index(name = "idx_task_status_id", columnList = "status, id")
+        })
 public class ScheduledTask {
 
     @Id
@@ -33,11 +41,47 @@ public class ScheduledTask {
 
     private LocalDateTime scheduledTime;
 
+    // 重复规则（cron表达式：秒 分 时 日 月 周，如每个工作日20:00为 "0 0 20 * * MON-FRI"），为空表示一次性任务
+    @Column(length = 100)
+    private String recurrenceRule;
+
+    // 重复截止时间，为空表示不截止
+    private LocalDateTime recurrenceEndTime;
+
+    // 发布时间窗口，重复规则产生的落在窗口外的时间点会被跳过；开始晚于结束表示跨天窗口
+    private LocalTime postingWindowStart;
+
+    private LocalTime postingWindowEnd;
+
     private LocalDateTime executedTime;
 
     @Column(columnDefinition = "text")
     private String imagePaths;
 
+    // 已重试次数（重复任务每个时间点重新计数）
+    private Integer retryCount = 0;
+
+    // 下次重试时间，为空表示无待执行的重试
+    private LocalDateTime nextRetryTime;
+
+    // 最近一次失败的错误信息
+    @Column(length = 500)
+    private String lastError;
+
+    // 领取该任务的调度节点
+    @Column(length = 100)
+    private String claimedBy;
+
+    // 领取凭证，完成时校验，防止租约过期被其他节点接管后仍写回结果
+    @Column(length = 36)
+    private String claimToken;
+
+    // 租约到期时间，节点宕机后超过该时间的执行中任务会被回收
+    private LocalDateTime leaseExpiresAt;
+
+    // 发布开始时间（检查点）：为空表示领取后仍在排队、尚未开始发布，回收时可直接重新执行
+    private LocalDateTime publishStartedAt;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,46 @@
+package com.xhs.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 重复任务预先展开的执行时间点
+ * 每个重复任务只保留最近的若干个待执行时间点，执行后逐个补齐，不在每次扫描时重新计算
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "scheduled_task_occurrences",
+        indexes = {
+                @Index(name = "idx_occurrence_status_time", columnList = "status, occurrence_time"),
+                @Index(name = "idx_occurrence_user_time", columnList = "user_id, occurrence_time")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_occurrence_task_time", columnNames = {"task_id", "occurrence_time"}))
+public class ScheduledTaskOccurrence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "occurrence_time", nullable = false)
+    private LocalDateTime occurrenceTime;
+
+    // PENDING / COMPLETED / FAILED / SKIPPED
+    @Column(length = 20)
+    private String status;
+
+    private LocalDateTime executedTime;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.xhs.repository;
+
+import com.xhs.entity.AIResponseCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AIResponseCacheRepository extends JpaRepository<AIResponseCache, Long> {
+
+    // 根据缓存键查找未过期的缓存
+    Optional<AIResponseCache> findByCacheKeyAndExpiresAtAfter(String cacheKey, LocalDateTime time);
+
+    // 根据缓存键查找缓存
+    Optional<AIResponseCache> findByCacheKey(String cacheKey);
+
+    // 增加命中次数
+    @Transactional
+    @Modifying
+    @Query("update AIResponseCache c set c.hitCount = c.hitCount + 1 where c.id = :id")
+    int incrementHitCount(Long id);
+
+    // 删除过期缓存
+    @Transactional
+    @Modifying
+    @Query("delete from AIResponseCache c where c.expiresAt < :time")
+    int deleteExpired(LocalDateTime time);
+}
@@ -0,0 +1,27 @@
+package com.xhs.repository;
+
+import com.xhs.entity.BatchGenerationItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BatchGenerationItemRepository extends JpaRepository<BatchGenerationItem, Long> {
+
+    // 按顺序查找批量任务的条目
+    List<BatchGenerationItem> findByJobIdOrderByItemIndex(Long jobId);
+
+    // 按状态查找批量任务的条目
+    List<BatchGenerationItem> findByJobIdAndStatusOrderByItemIndex(Long jobId, String status);
+
+    // 将未完成的条目标记为失败
+    @Transactional
+    @Modifying
+    @Query("update BatchGenerationItem i set i.status = :status, i.errorMessage = :errorMessage where i.job.id in :jobIds and i.status in :fromStatuses")
+    int failUnfinished(Collection<Long> jobIds, Collection<String> fromStatuses, String status, String errorMessage);
+}
@@ -0,0 +1,36 @@
+package com.xhs.repository;
+
+import com.xhs.entity.BatchGenerationJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BatchGenerationJobRepository extends JpaRepository<BatchGenerationJob, Long> {
+
+    // 根据状态查找批量任务
+    List<BatchGenerationJob> findByStatus(String status);
+
+    // 成功条目数加一
+    @Transactional
+    @Modifying
+    @Query("update BatchGenerationJob j set j.completedCount = j.completedCount + 1 where j.id = :id")
+    int incrementCompleted(Long id);
+
+    // 失败条目数加一
+    @Transactional
+    @Modifying
+    @Query("update BatchGenerationJob j set j.failedCount = j.failedCount + 1 where j.id = :id")
+    int incrementFailed(Long id);
+
+    // 更新任务状态
+    @Transactional
+    @Modifying
+    @Query("update BatchGenerationJob j set j.status = :status, j.finishedAt = :finishedAt where j.id = :id")
+    int updateStatus(Long id, String status, LocalDateTime finishedAt);
+}
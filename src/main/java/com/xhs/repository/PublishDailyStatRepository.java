@@ -0,0 +1,31 @@
+package com.xhs.repository;
+
+import com.xhs.dto.DailyPublishStat;
+import com.xhs.dto.UserPublishStat;
+import com.xhs.entity.PublishDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PublishDailyStatRepository extends JpaRepository<PublishDailyStat, Long> {
+
+    // 删除指定日期的汇总（重新计算前）
+    @Modifying
+    @Query("delete from PublishDailyStat s where s.statDate = :statDate")
+    int deleteByStatDate(LocalDate statDate);
+
+    // 按天汇总指定日期之后的发布数量
+    @Query("select new com.xhs.dto.DailyPublishStat(s.statDate, sum(s.totalCount), sum(s.successCount), sum(s.failedCount)) " +
+            "from PublishDailyStat s where s.statDate >= :since group by s.statDate order by s.statDate")
+    List<DailyPublishStat> sumByDate(LocalDate since);
+
+    // 按用户汇总全部发布数量
+    @Query("select new com.xhs.dto.UserPublishStat(s.userId, sum(s.totalCount), sum(s.successCount), sum(s.failedCount)) " +
+            "from PublishDailyStat s group by s.userId order by sum(s.totalCount) desc")
+    List<UserPublishStat> sumByUser();
+}
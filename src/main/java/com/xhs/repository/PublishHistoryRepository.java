@@ -1,11 +1,17 @@
 package com.xhs.repository;
 
+import com.xhs.dto.PublishHistorySummary;
 import com.xhs.entity.PublishHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PublishHistoryRepository extends JpaRepository<PublishHistory, Long> {
@@ -19,6 +25,67 @@ public interface PublishHistoryRepository extends JpaRepository<PublishHistory,
     // 根据用户ID和状态查找发布历史
     List<PublishHistory> findByUserIdAndStatus(Long userId, String status);
 
+    // 推进进行中发布的阶段
+    @Transactional
+    @Modifying
+    @Query("update PublishHistory h set h.stage = :stage, h.updatedAt = :now where h.id = :id and h.status = :status")
+    int updateStage(Long id, String status, String stage, LocalDateTime now);
+
+    // 写入进行中发布的最终结果
+    @Transactional
+    @Modifying
+    @Query("update PublishHistory h set h.status = :toStatus, h.noteId = :noteId, h.errorMessage = :errorMessage, " +
+            "h.publishedTime = :publishedTime, h.updatedAt = :now where h.id = :id and h.status = :fromStatus")
+    int finish(Long id, String fromStatus, String toStatus, String noteId, String errorMessage, LocalDateTime publishedTime, LocalDateTime now);
+
+    // 查找定时任务在指定时间之后创建的发布记录（用于核对中断任务的发布结果）
+    Optional<PublishHistory> findFirstByTaskIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(Long taskId, LocalDateTime since);
+
+    // 按ID倒序游标分页查询发布历史列表项（只取列表字段，不加载正文）；按过滤条件分别查询，只带上实际存在的条件以便使用对应索引
+    default List<PublishHistorySummary> findSummaries(Long userId, String status, Long cursor, Pageable pageable) {
+        long before = cursor != null ? cursor : Long.MAX_VALUE;
+        if (userId != null && status != null) {
+            return findSummariesByUserAndStatus(userId, status, before, pageable);
+        }
+        if (userId != null) {
+            return findSummariesByUser(userId, before, pageable);
+        }
+        if (status != null) {
+            return findSummariesByStatus(status, before, pageable);
+        }
+        return findAllSummaries(before, pageable);
+    }
+
+    @Query("select new com.xhs.dto.PublishHistorySummary(h.id, h.user.id, h.title, h.status, h.errorMessage, " +
+            "h.scheduledTime, h.publishedTime, h.createdAt) from PublishHistory h " +
+            "where h.id < :cursor order by h.id desc")
+    List<PublishHistorySummary> findAllSummaries(long cursor, Pageable pageable);
+
+    @Query("select new com.xhs.dto.PublishHistorySummary(h.id, h.user.id, h.title, h.status, h.errorMessage, " +
+            "h.scheduledTime, h.publishedTime, h.createdAt) from PublishHistory h " +
+            "where h.user.id = :userId and h.id < :cursor order by h.id desc")
+    List<PublishHistorySummary> findSummariesByUser(Long userId, long cursor, Pageable pageable);
+
+    @Query("select new com.xhs.dto.PublishHistorySummary(h.id, h.user.id, h.title, h.status, h.errorMessage, " +
+            "h.scheduledTime, h.publishedTime, h.createdAt) from PublishHistory h " +
+            "where h.status = :status and h.id < :cursor order by h.id desc")
+    List<PublishHistorySummary> findSummariesByStatus(String status, long cursor, Pageable pageable);
+
+    @Query("select new com.xhs.dto.PublishHistorySummary(h.id, h.user.id, h.title, h.status, h.errorMessage, " +
+            "h.scheduledTime, h.publishedTime, h.createdAt) from PublishHistory h " +
+            "where h.user.id = :userId and h.status = :status and h.id < :cursor order by h.id desc")
+    List<PublishHistorySummary> findSummariesByUserAndStatus(Long userId, String status, long cursor, Pageable pageable);
+
+    // 按用户统计指定时间范围内的发布数量：[用户ID, 总数, 成功数, 失败数]
+    @Query("select h.user.id, count(h), sum(case when h.status = 'SUCCESS' then 1 else 0 end), " +
+            "sum(case when h.status = 'FAILED' then 1 else 0 end) from PublishHistory h " +
+            "where h.createdAt >= :startTime and h.createdAt < :endTime group by h.user.id")
+    List<Object[]> countByUserBetween(LocalDateTime startTime, LocalDateTime endTime);
+
+    // 最早的发布记录时间
+    @Query("select min(h.createdAt) from PublishHistory h")
+    LocalDateTime findFirstCreatedAt();
+
     // 统计指定时间范围内的发布数量
     long countByCreatedAtBetween(LocalDateTime startTime, LocalDateTime endTime);
 }
\ No newline at end of file
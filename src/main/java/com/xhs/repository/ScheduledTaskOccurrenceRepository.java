@@ -0,0 +1,60 @@
+package com.xhs.repository;
+
+import com.xhs.entity.ScheduledTaskOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledTaskOccurrenceRepository extends JpaRepository<ScheduledTaskOccurrence, Long> {
+
+    // 按时间顺序查找任务的执行时间点
+    List<ScheduledTaskOccurrence> findByTaskIdOrderByOccurrenceTime(Long taskId);
+
+    // 查找用户在指定时间范围内的执行时间点
+    List<ScheduledTaskOccurrence> findByUserIdAndOccurrenceTimeBetweenOrderByOccurrenceTime(Long userId, LocalDateTime startTime, LocalDateTime endTime);
+
+    // 查找指定时间范围内的执行时间点
+    List<ScheduledTaskOccurrence> findByOccurrenceTimeBetweenOrderByOccurrenceTime(LocalDateTime startTime, LocalDateTime endTime);
+
+    // 查找任务在指定时间之后的第一个待执行时间点
+    Optional<ScheduledTaskOccurrence> findFirstByTaskIdAndStatusAndOccurrenceTimeAfterOrderByOccurrenceTime(Long taskId, String status, LocalDateTime time);
+
+    // 统计任务在指定时间之后的待执行时间点数量
+    long countByTaskIdAndStatusAndOccurrenceTimeAfter(Long taskId, String status, LocalDateTime time);
+
+    // 任务已展开的最晚时间点
+    @Query("select max(o.occurrenceTime) from ScheduledTaskOccurrence o where o.taskId = :taskId")
+    LocalDateTime findLastOccurrenceTime(Long taskId);
+
+    // 写入某个时间点的执行结果
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTaskOccurrence o set o.status = :status, o.executedTime = :executedTime " +
+            "where o.taskId = :taskId and o.occurrenceTime = :occurrenceTime and o.status = :fromStatus")
+    int complete(Long taskId, LocalDateTime occurrenceTime, String fromStatus, String status, LocalDateTime executedTime);
+
+    // 将指定时间之前仍未执行的时间点标记为跳过（停机或暂停期间错过的）
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTaskOccurrence o set o.status = :status where o.taskId = :taskId and o.status = :fromStatus and o.occurrenceTime <= :time")
+    int skipBefore(Long taskId, String fromStatus, String status, LocalDateTime time);
+
+    // 删除任务指定状态的时间点（重复规则变更时重新展开）
+    @Transactional
+    @Modifying
+    @Query("delete from ScheduledTaskOccurrence o where o.taskId = :taskId and o.status = :status")
+    int deleteByTaskIdAndStatus(Long taskId, String status);
+
+    // 删除任务的所有时间点
+    @Transactional
+    @Modifying
+    @Query("delete from ScheduledTaskOccurrence o where o.taskId = :taskId")
+    int deleteByTaskId(Long taskId);
+}
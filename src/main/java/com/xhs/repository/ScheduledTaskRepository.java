@@ -1,10 +1,16 @@
 package com.xhs.repository;
 
+import com.xhs.dto.ScheduledTaskSummary;
 import com.xhs.entity.ScheduledTask;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -27,4 +33,116 @@ public interface ScheduledTaskRepository extends JpaRepository<ScheduledTask, Lo
 
     // 统计指定状态的任务数量
     long countByStatus(String status);
-}
\ No newline at end of file
+
+    // 查找到期待执行任务的ID（按计划时间排序，用于批量领取；等待重试的任务以重试时间为准）
+    @Query("select t.id from ScheduledTask t " +
+            "where t.status = :status and t.scheduledTime <= :time " +
+            "and (t.nextRetryTime is null or t.nextRetryTime <= :time) order by t.scheduledTime")
+    List<Long> findDueTaskIds(String status, LocalDateTime time, Pageable pageable);
+
+    // 按ID倒序游标分页查询任务列表项（只取列表字段，不加载正文）；按过滤条件分别查询，只带上实际存在的条件以便使用对应索引
+    default List<ScheduledTaskSummary> findSummaries(Long userId, String status, Long cursor, Pageable pageable) {
+        long before = cursor != null ? cursor : Long.MAX_VALUE;
+        if (userId != null && status != null) {
+            return findSummariesByUserAndStatus(userId, status, before, pageable);
+        }
+        if (userId != null) {
+            return findSummariesByUser(userId, before, pageable);
+        }
+        if (status != null) {
+            return findSummariesByStatus(status, before, pageable);
+        }
+        return findAllSummaries(before, pageable);
+    }
+
+    @Query("select new com.xhs.dto.ScheduledTaskSummary(t.id, t.user.id, t.title, t.status, t.scheduledTime, t.executedTime, " +
+            "t.recurrenceRule, t.retryCount, t.lastError, t.createdAt, t.updatedAt) from ScheduledTask t " +
+            "where t.id < :cursor order by t.id desc")
+    List<ScheduledTaskSummary> findAllSummaries(long cursor, Pageable pageable);
+
+    @Query("select new com.xhs.dto.ScheduledTaskSummary(t.id, t.user.id, t.title, t.status, t.scheduledTime, t.executedTime, " +
+            "t.recurrenceRule, t.retryCount, t.lastError, t.createdAt, t.updatedAt) from ScheduledTask t " +
+            "where t.user.id = :userId and t.id < :cursor order by t.id desc")
+    List<ScheduledTaskSummary> findSummariesByUser(Long userId, long cursor, Pageable pageable);
+
+    @Query("select new com.xhs.dto.ScheduledTaskSummary(t.id, t.user.id, t.title, t.status, t.scheduledTime, t.executedTime, " +
+            "t.recurrenceRule, t.retryCount, t.lastError, t.createdAt, t.updatedAt) from ScheduledTask t " +
+            "where t.status = :status and t.id < :cursor order by t.id desc")
+    List<ScheduledTaskSummary> findSummariesByStatus(String status, long cursor, Pageable pageable);
+
+    @Query("select new com.xhs.dto.ScheduledTaskSummary(t.id, t.user.id, t.title, t.status, t.scheduledTime, t.executedTime, " +
+            "t.recurrenceRule, t.retryCount, t.lastError, t.createdAt, t.updatedAt) from ScheduledTask t " +
+            "where t.user.id = :userId and t.status = :status and t.id < :cursor order by t.id desc")
+    List<ScheduledTaskSummary> findSummariesByUserAndStatus(Long userId, String status, long cursor, Pageable pageable);
+
+    // 根据领取凭证查找任务
+    List<ScheduledTask> findByClaimToken(String claimToken);
+
+    // 原子领取：只有状态仍为 fromStatuses 之一时才会更新，返回1表示领取成功
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.status = :toStatus, t.claimedBy = :owner, t.claimToken = :token, " +
+            "t.leaseExpiresAt = :leaseExpiresAt, t.updatedAt = :now where t.id = :id and t.status in :fromStatuses")
+    int claim(Long id, Collection<String> fromStatuses, String toStatus, String owner, String token,
+              LocalDateTime leaseExpiresAt, LocalDateTime now);
+
+    // 批量原子领取，已被其他节点领取的任务不受影响
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.status = :toStatus, t.claimedBy = :owner, t.claimToken = :token, " +
+            "t.leaseExpiresAt = :leaseExpiresAt, t.updatedAt = :now where t.id in :ids and t.status = :fromStatus")
+    int claimBatch(Collection<Long> ids, String fromStatus, String toStatus, String owner, String token,
+                   LocalDateTime leaseExpiresAt, LocalDateTime now);
+
+    // 续租：只续仍由该凭证持有的任务
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.leaseExpiresAt = :leaseExpiresAt where t.id in :ids and t.claimToken = :token and t.status = :status")
+    int renewLease(Collection<Long> ids, String token, String status, LocalDateTime leaseExpiresAt);
+
+    // 释放领取并写入执行结果，凭证不匹配（租约已被回收）时不更新
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.status = :status, t.executedTime = :executedTime, t.lastError = :lastError, " +
+            "t.nextRetryTime = null, t.claimedBy = null, t.claimToken = null, t.leaseExpiresAt = null, t.publishStartedAt = null, " +
+            "t.updatedAt = :now where t.id = :id and t.claimToken = :token")
+    int completeClaim(Long id, String token, String status, LocalDateTime executedTime, String lastError, LocalDateTime now);
+
+    // 释放领取并安排重试，凭证不匹配时不更新
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.status = :status, t.retryCount = :retryCount, t.nextRetryTime = :nextRetryTime, " +
+            "t.lastError = :lastError, t.claimedBy = null, t.claimToken = null, t.leaseExpiresAt = null, t.publishStartedAt = null, " +
+            "t.updatedAt = :now where t.id = :id and t.claimToken = :token")
+    int scheduleRetry(Long id, String token, String status, int retryCount, LocalDateTime nextRetryTime, String lastError,
+                      LocalDateTime now);
+
+    // 重放死信任务：重置重试计数后重新置为待执行
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.status = :toStatus, t.retryCount = 0, t.nextRetryTime = null, t.updatedAt = :now " +
+            "where t.id = :id and t.status = :fromStatus")
+    int replay(Long id, String fromStatus, String toStatus, LocalDateTime now);
+
+    // 重复任务执行完成后重新置为待执行并指向下一个时间点，状态已被修改（如执行中被暂停）时不更新
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.status = :toStatus, t.scheduledTime = :scheduledTime, t.retryCount = 0, " +
+            "t.nextRetryTime = null, t.updatedAt = :now where t.id = :id and t.status = :fromStatus")
+    int rearm(Long id, String fromStatus, String toStatus, LocalDateTime scheduledTime, LocalDateTime now);
+
+    // 记录发布开始的检查点，凭证不匹配（租约已被回收）时不更新
+    @Transactional
+    @Modifying
+    @Query("update ScheduledTask t set t.publishStartedAt = :now where t.id = :id and t.claimToken = :token")
+    int markPublishStarted(Long id, String token, LocalDateTime now);
+
+    // 查找租约已过期的执行中任务（节点宕机或失联）
+    @Query("select t from ScheduledTask t " +
+            "where t.status = :status and " +
+            "(t.leaseExpiresAt < :now or (t.leaseExpiresAt is null and t.updatedAt < :staleBefore))")
+    List<ScheduledTask> findExpiredLeaseTasks(String status, LocalDateTime now, LocalDateTime staleBefore);
+
+    // 查找指定节点领取的任务
+    List<ScheduledTask> findByStatusAndClaimedBy(String status, String claimedBy);
+}
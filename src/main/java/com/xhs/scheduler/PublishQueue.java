@@ -0,0 +1,284 @@
+package com.xhs.scheduler;
+
+import com.xhs.utils.KeyedTaskExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按账号串行的发布队列
+ * 每个用户一条队列，按计划时间先后（相同时按入队顺序）逐个发布，同一账号同时只有一个发布在执行，
+ * 两次发布之间至少间隔指定时间；所有账号共享全局并发上限；单个账号排队数超过上限时拒绝入队（背压）
+ */
+@Component
+public class PublishQueue implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(PublishQueue.class);
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing((Entry entry) -> entry.scheduledTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final KeyedTaskExecutor publishTaskExecutor;
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // 全局同时执行的发布数上限
+    @Value("${publish.queue.max-concurrent:3}")
+    private int maxConcurrent;
+
+    // 同一账号两次发布之间的最小间隔
+    @Value("${publish.queue.min-gap-seconds:60}")
+    private long minGapSeconds;
+
+    // 单个账号允许排队的最大任务数
+    @Value("${publish.queue.max-depth-per-user:50}")
+    private int maxDepthPerUser;
+
+    private Semaphore globalPermits;
+
+    // 关闭后不再接收和开始新的发布
+    private volatile boolean closed;
+
+    private static final class Entry {
+        private final Long taskId;
+        private final LocalDateTime scheduledTime;
+        private final long sequence;
+        private final Runnable action;
+
+        private Entry(Long taskId, LocalDateTime scheduledTime, long sequence, Runnable action) {
+            this.taskId = taskId;
+            this.scheduledTime = scheduledTime;
+            this.sequence = sequence;
+            this.action = action;
+        }
+    }
+
+    // 单个账号的队列，所有字段由自身的锁保护
+    private static final class Lane {
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>(ORDER);
+        private boolean draining;
+        private long lastFinishedNanos;
+        private boolean published;
+    }
+
+    // 构造函数
+    public PublishQueue(@Qualifier("publishTaskExecutor") KeyedTaskExecutor publishTaskExecutor) {
+        this.publishTaskExecutor = Objects.requireNonNull(publishTaskExecutor, "publishTaskExecutor must not be null");
+    }
+
+    @PostConstruct
+    public void init() {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("publish.queue.max-concurrent必须大于0");
+        }
+        globalPermits = new Semaphore(maxConcurrent, true);
+        logger.info("发布队列已创建, 全局并发上限: {}, 账号发布间隔: {}秒, 单账号排队上限: {}",
+                maxConcurrent, minGapSeconds, maxDepthPerUser);
+    }
+
+    /**
+     * 将发布加入账号队列
+     * @param userId 用户ID
+     * @param taskId 任务ID（用于日志）
+     * @param scheduledTime 计划执行时间，决定队列内的顺序
+     * @param action 发布操作，需自行处理异常
+     * @return 是否已入队；该账号排队已满时返回false
+     */
+    public boolean offer(Long userId, Long taskId, LocalDateTime scheduledTime, Runnable action) {
+        Lane lane = lanes.computeIfAbsent(userId, k -> new Lane());
+        boolean start;
+        synchronized (lane) {
+            if (closed) {
+                logger.warn("发布队列已关闭, 拒绝入队, 用户ID: {}, 任务ID: {}", userId, taskId);
+                return false;
+            }
+            if (lane.queue.size() >= maxDepthPerUser) {
+                rejected.incrementAndGet();
+                logger.warn("账号发布队列已满, 拒绝入队, 用户ID: {}, 任务ID: {}, 排队数: {}", userId, taskId, lane.queue.size());
+                return false;
+            }
+            lane.queue.add(new Entry(taskId, scheduledTime, sequence.incrementAndGet(), action));
+            queued.incrementAndGet();
+            start = !lane.draining;
+            lane.draining = true;
+        }
+
+        if (start) {
+            publishTaskExecutor.submit(() -> {
+                drain(userId, lane);
+                return null;
+            }).exceptionally(e -> {
+                logger.error("启动账号发布队列失败, 用户ID: {}", userId, e);
+                synchronized (lane) {
+                    lane.draining = false;
+                }
+                return null;
+            });
+        }
+        return true;
+    }
+
+    /**
+     * 依次执行账号队列中的发布，队列为空时退出
+     */
+    private void drain(Long userId, Lane lane) {
+        try {
+            while (true) {
+                awaitGap(lane);
+                globalPermits.acquire();
+                Entry entry;
+                try {
+                    // 等待期间可能有计划时间更早的任务入队，取队首时再决定执行哪个
+                    synchronized (lane) {
+                        entry = closed ? null : lane.queue.poll();
+                        if (entry == null) {
+                            lane.draining = false;
+                            return;
+                        }
+                        queued.decrementAndGet();
+                    }
+                    running.incrementAndGet();
+                    try {
+                        entry.action.run();
+                    } catch (RuntimeException e) {
+                        logger.error("发布执行异常, 用户ID: {}, 任务ID: {}", userId, entry.taskId, e);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                } finally {
+                    globalPermits.release();
+                }
+                synchronized (lane) {
+                    lane.lastFinishedNanos = System.nanoTime();
+                    lane.published = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            // 应用关闭：剩余任务保持领取状态，租约过期后由其他节点回收
+            synchronized (lane) {
+                lane.draining = false;
+            }
+            logger.warn("账号发布队列被中断, 用户ID: {}, 剩余 {} 个任务", userId, depth(lane));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 等待距离该账号上一次发布结束满最小间隔
+     */
+    private void awaitGap(Lane lane) throws InterruptedException {
+        long waitNanos;
+        synchronized (lane) {
+            if (!lane.published) {
+                return;
+            }
+            waitNanos = lane.lastFinishedNanos + TimeUnit.SECONDS.toNanos(minGapSeconds) - System.nanoTime();
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 关闭队列：不再接收新任务，尚未开始的任务从队列中移除并返回，由调用方释放领取
+     * @return 未开始执行的任务ID
+     */
+    public List<Long> shutdown() {
+        closed = true;
+        List<Long> pendingTaskIds = new ArrayList<>();
+        lanes.values().forEach(lane -> {
+            synchronized (lane) {
+                Entry entry;
+                while ((entry = lane.queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    pendingTaskIds.add(entry.taskId);
+                }
+            }
+        });
+        return pendingTaskIds;
+    }
+
+    /**
+     * 等待执行中的发布结束
+     * @param timeout 最长等待时间
+     * @return 是否已全部结束
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (running.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        return true;
+    }
+
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    private static int depth(Lane lane) {
+        synchronized (lane) {
+            return lane.queue.size();
+        }
+    }
+
+    /**
+     * 获取队列统计信息
+     * @return 统计信息，包含各账号的排队数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("running", running.get());
+        stats.put("rejected", rejected.get());
+        stats.put("maxConcurrent", maxConcurrent);
+        Map<Long, Integer> depthByUser = new LinkedHashMap<>();
+        lanes.forEach((userId, lane) -> {
+            int depth = depth(lane);
+            if (depth > 0) {
+                depthByUser.put(userId, depth);
+            }
+        });
+        stats.put("depthByUser", depthByUser);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("xhs.publish.queue.depth", queued, AtomicInteger::get)
+                .description("排队等待发布的任务数").register(registry);
+        Gauge.builder("xhs.publish.queue.running", running, AtomicInteger::get)
+                .description("执行中的发布数").register(registry);
+        Gauge.builder("xhs.publish.queue.accounts", lanes, map -> map.values().stream().filter(lane -> depth(lane) > 0).count())
+                .description("有排队任务的账号数").register(registry);
+        Gauge.builder("xhs.publish.queue.rejected", rejected, AtomicLong::get)
+                .description("因排队已满被拒绝的任务数").register(registry);
+    }
+}
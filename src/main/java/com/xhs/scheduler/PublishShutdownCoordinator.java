@@ -0,0 +1,73 @@
+package com.xhs.scheduler;
+
+import com.xhs.service.impl.ScheduledTaskServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 发布任务的优雅关闭
+ * 在Quartz停止触发之后、执行器关闭之前执行：队列中尚未开始的任务立即释放给其他节点，
+ * 执行中的发布在限定时间内等待完成，超时仍未完成的任务租约置为立即过期，由其他节点按发布记录核对
+ */
+@Component
+public class PublishShutdownCoordinator implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(PublishShutdownCoordinator.class);
+
+    // Quartz调度器的阶段为Integer.MAX_VALUE，先于本组件停止
+    private static final int PHASE = Integer.MAX_VALUE - 1024;
+
+    private final PublishQueue publishQueue;
+    private final ScheduledTaskServiceImpl scheduledTaskService;
+
+    @Value("${publish.shutdown.drain-timeout-seconds:60}")
+    private long drainTimeoutSeconds;
+
+    private volatile boolean running;
+
+    // 构造函数
+    public PublishShutdownCoordinator(PublishQueue publishQueue, ScheduledTaskServiceImpl scheduledTaskService) {
+        this.publishQueue = Objects.requireNonNull(publishQueue, "publishQueue must not be null");
+        this.scheduledTaskService = Objects.requireNonNull(scheduledTaskService, "scheduledTaskService must not be null");
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        List<Long> queuedTaskIds = publishQueue.shutdown();
+        int released = scheduledTaskService.releaseQueuedTasks(queuedTaskIds);
+        logger.info("发布队列已关闭, 释放排队中的任务 {} 个, 等待 {} 个执行中的发布完成", released, publishQueue.getRunningCount());
+
+        try {
+            if (publishQueue.awaitIdle(Duration.ofSeconds(drainTimeoutSeconds))) {
+                logger.info("执行中的发布已全部完成");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int expired = scheduledTaskService.expireInFlightLeases();
+        logger.warn("等待发布完成超时, {} 个执行中的任务租约已置为过期, 将由其他节点核对", expired);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,29 @@
+package com.xhs.scheduler;
+
+import com.xhs.service.impl.ScheduledTaskServiceImpl;
+import org.quartz.JobExecutionContext;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import java.util.Objects;
+
+/**
+ * 定时发布任务的Quartz作业
+ * 每个ScheduledTask对应一个持久化作业，触发后由任务服务原子领取并异步执行发布
+ */
+public class PublishTaskJob extends QuartzJobBean {
+
+    public static final String TASK_ID_KEY = "taskId";
+
+    private final ScheduledTaskServiceImpl scheduledTaskService;
+
+    // 构造函数（由Spring的作业工厂注入依赖）
+    public PublishTaskJob(ScheduledTaskServiceImpl scheduledTaskService) {
+        this.scheduledTaskService = Objects.requireNonNull(scheduledTaskService, "scheduledTaskService must not be null");
+    }
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        Long taskId = context.getMergedJobDataMap().getLong(TASK_ID_KEY);
+        scheduledTaskService.dispatchDueTask(taskId);
+    }
+}
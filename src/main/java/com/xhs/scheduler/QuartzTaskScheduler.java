@@ -0,0 +1,125 @@
+package com.xhs.scheduler;
+
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * 定时任务与Quartz触发器的映射
+ * 每个ScheduledTask对应一个持久化作业（durable，节点宕机后可恢复）和一个一次性触发器，
+ * 触发记录保存在Quartz的JDBC作业存储中，由集群中的某一个节点在到点时触发；
+ * 错过触发时间（如全部节点停机）时，恢复后立即触发
+ */
+@Component
+public class QuartzTaskScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(QuartzTaskScheduler.class);
+
+    private static final String GROUP = "scheduled-tasks";
+
+    private final Scheduler scheduler;
+
+    // 构造函数
+    public QuartzTaskScheduler(Scheduler scheduler) {
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+    }
+
+    /**
+     * 创建或更新任务的触发器；作业已暂停时同时恢复
+     * @param taskId 任务ID
+     * @param scheduledTime 计划执行时间
+     * @return 是否成功
+     */
+    public boolean schedule(Long taskId, LocalDateTime scheduledTime) {
+        if (taskId == null || scheduledTime == null) {
+            return false;
+        }
+        try {
+            JobDetail job = JobBuilder.newJob(PublishTaskJob.class)
+                    .withIdentity(jobKey(taskId))
+                    .usingJobData(PublishTaskJob.TASK_ID_KEY, taskId)
+                    .storeDurably()
+                    .requestRecovery()
+                    .build();
+            Trigger trigger = TriggerBuilder.newTrigger()
+                    .withIdentity(triggerKey(taskId))
+                    .forJob(job)
+                    .startAt(Date.from(scheduledTime.atZone(ZoneId.systemDefault()).toInstant()))
+                    .withSchedule(SimpleScheduleBuilder.simpleSchedule().withMisfireHandlingInstructionFireNow())
+                    .build();
+
+            scheduler.addJob(job, true);
+            if (scheduler.checkExists(trigger.getKey())) {
+                scheduler.rescheduleJob(trigger.getKey(), trigger);
+            } else {
+                scheduler.scheduleJob(trigger);
+            }
+            scheduler.resumeJob(job.getKey());
+            return true;
+        } catch (SchedulerException e) {
+            logger.error("创建定时任务触发器失败, 任务ID: {}", taskId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 暂停任务的触发器，恢复时若已错过触发时间则立即触发
+     * @param taskId 任务ID
+     */
+    public void pause(Long taskId) {
+        try {
+            if (scheduler.checkExists(jobKey(taskId))) {
+                scheduler.pauseJob(jobKey(taskId));
+            }
+        } catch (SchedulerException e) {
+            logger.error("暂停定时任务触发器失败, 任务ID: {}", taskId, e);
+        }
+    }
+
+    /**
+     * 删除任务的作业及触发器
+     * @param taskId 任务ID
+     */
+    public void unschedule(Long taskId) {
+        try {
+            scheduler.deleteJob(jobKey(taskId));
+        } catch (SchedulerException e) {
+            logger.error("删除定时任务触发器失败, 任务ID: {}", taskId, e);
+        }
+    }
+
+    /**
+     * 任务是否已有触发器
+     * @param taskId 任务ID
+     * @return 是否存在
+     */
+    public boolean isScheduled(Long taskId) {
+        try {
+            return scheduler.checkExists(triggerKey(taskId));
+        } catch (SchedulerException e) {
+            logger.error("查询定时任务触发器失败, 任务ID: {}", taskId, e);
+            return false;
+        }
+    }
+
+    private static JobKey jobKey(Long taskId) {
+        return JobKey.jobKey("task-" + taskId, GROUP);
+    }
+
+    private static TriggerKey triggerKey(Long taskId) {
+        return TriggerKey.triggerKey("task-" + taskId, GROUP);
+    }
+}
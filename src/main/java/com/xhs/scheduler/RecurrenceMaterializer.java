@@ -0,0 +1,168 @@
+package com.xhs.scheduler;
+
+import com.xhs.entity.ScheduledTask;
+import com.xhs.entity.ScheduledTaskOccurrence;
+import com.xhs.repository.ScheduledTaskOccurrenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 重复任务时间点展开
+ * 按任务的重复规则（cron表达式 + 截止时间 + 发布时间窗口）预先计算最近的若干个执行时间点并写入时间点表，
+ * 任务每执行一次补齐一次；任务本身的scheduledTime始终指向下一个待执行的时间点，触发与领取沿用一次性任务的流程
+ */
+@Component
+public class RecurrenceMaterializer {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SKIPPED = "SKIPPED";
+
+    // 单次展开最多扫描的cron时间点数，防止时间窗口与规则几乎不相交时长时间循环
+    private static final int MAX_SCAN = 1000;
+
+    private final ScheduledTaskOccurrenceRepository occurrenceRepository;
+
+    // 每个重复任务保留的待执行时间点数
+    @Value("${scheduler.recurrence.materialize-count:10}")
+    private int materializeCount;
+
+    // 构造函数
+    public RecurrenceMaterializer(ScheduledTaskOccurrenceRepository occurrenceRepository) {
+        this.occurrenceRepository = Objects.requireNonNull(occurrenceRepository, "occurrenceRepository must not be null");
+    }
+
+    /**
+     * 是否为重复任务
+     * @param task 定时任务
+     * @return 是否重复
+     */
+    public static boolean isRecurring(ScheduledTask task) {
+        return task.getRecurrenceRule() != null && !task.getRecurrenceRule().isBlank();
+    }
+
+    /**
+     * 校验重复规则
+     * @param rule cron表达式
+     * @throws IllegalArgumentException 规则无效时抛出
+     */
+    public static void validate(String rule) {
+        if (!CronExpression.isValidExpression(rule)) {
+            throw new IllegalArgumentException("无效的重复规则: " + rule);
+        }
+    }
+
+    /**
+     * 补齐任务的待执行时间点
+     * @param task 重复任务
+     * @param startTime 从该时间之后开始展开（已有时间点时从最晚的时间点之后继续）
+     * @return 新增的时间点数
+     */
+    public int topUp(ScheduledTask task, LocalDateTime startTime) {
+        if (!isRecurring(task)) {
+            return 0;
+        }
+        long pending = occurrenceRepository.countByTaskIdAndStatusAndOccurrenceTimeAfter(task.getId(), STATUS_PENDING, startTime);
+        int missing = materializeCount - (int) pending;
+        if (missing <= 0) {
+            return 0;
+        }
+
+        CronExpression cron = CronExpression.parse(task.getRecurrenceRule());
+        LocalDateTime cursor = occurrenceRepository.findLastOccurrenceTime(task.getId());
+        if (cursor == null || cursor.isBefore(startTime)) {
+            cursor = startTime;
+        }
+
+        List<ScheduledTaskOccurrence> created = new ArrayList<>(missing);
+        for (int scanned = 0; created.size() < missing && scanned < MAX_SCAN; scanned++) {
+            LocalDateTime next = cron.next(cursor);
+            if (next == null || (task.getRecurrenceEndTime() != null && next.isAfter(task.getRecurrenceEndTime()))) {
+                break;
+            }
+            cursor = next;
+            if (!inPostingWindow(task, next.toLocalTime())) {
+                continue;
+            }
+            ScheduledTaskOccurrence occurrence = new ScheduledTaskOccurrence();
+            occurrence.setTaskId(task.getId());
+            occurrence.setUserId(task.getUser().getId());
+            occurrence.setOccurrenceTime(next);
+            occurrence.setStatus(STATUS_PENDING);
+            created.add(occurrence);
+        }
+        occurrenceRepository.saveAll(created);
+        return created.size();
+    }
+
+    /**
+     * 重复规则变更后丢弃尚未执行的时间点并重新展开
+     * @param task 重复任务
+     * @param startTime 展开起始时间
+     */
+    public void rematerialize(ScheduledTask task, LocalDateTime startTime) {
+        occurrenceRepository.deleteByTaskIdAndStatus(task.getId(), STATUS_PENDING);
+        topUp(task, startTime);
+    }
+
+    /**
+     * 下一个待执行时间点
+     * @param taskId 任务ID
+     * @param after 该时间之后
+     * @return 时间点，规则已结束时返回null
+     */
+    public LocalDateTime nextOccurrence(Long taskId, LocalDateTime after) {
+        return occurrenceRepository.findFirstByTaskIdAndStatusAndOccurrenceTimeAfterOrderByOccurrenceTime(taskId, STATUS_PENDING, after)
+                .map(ScheduledTaskOccurrence::getOccurrenceTime)
+                .orElse(null);
+    }
+
+    /**
+     * 写入时间点的执行结果，并将更早的未执行时间点标记为跳过
+     * @param taskId 任务ID
+     * @param occurrenceTime 本次执行的时间点
+     * @param status 执行结果
+     * @param executedTime 执行完成时间
+     */
+    public void complete(Long taskId, LocalDateTime occurrenceTime, String status, LocalDateTime executedTime) {
+        occurrenceRepository.complete(taskId, occurrenceTime, STATUS_PENDING, status, executedTime);
+        occurrenceRepository.skipBefore(taskId, STATUS_PENDING, STATUS_SKIPPED, occurrenceTime);
+    }
+
+    /**
+     * 将已错过的时间点标记为跳过（如任务暂停期间）
+     * @param taskId 任务ID
+     * @param time 该时间及之前
+     * @return 跳过的时间点数
+     */
+    public int skipMissed(Long taskId, LocalDateTime time) {
+        return occurrenceRepository.skipBefore(taskId, STATUS_PENDING, STATUS_SKIPPED, time);
+    }
+
+    /**
+     * 删除任务的所有时间点
+     * @param taskId 任务ID
+     */
+    public void delete(Long taskId) {
+        occurrenceRepository.deleteByTaskId(taskId);
+    }
+
+    private static boolean inPostingWindow(ScheduledTask task, LocalTime time) {
+        LocalTime start = task.getPostingWindowStart();
+        LocalTime end = task.getPostingWindowEnd();
+        if (start == null || end == null) {
+            return true;
+        }
+        if (!start.isAfter(end)) {
+            return !time.isBefore(start) && !time.isAfter(end);
+        }
+        // 跨天窗口，如 22:00 - 02:00
+        return !time.isBefore(start) || !time.isAfter(end);
+    }
+}
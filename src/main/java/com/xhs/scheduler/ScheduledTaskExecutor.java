@@ -3,6 +3,8 @@ package com.xhs.scheduler;
 import com.xhs.service.impl.ScheduledTaskServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -21,13 +23,39 @@ public class ScheduledTaskExecutor {
     }
 
     /**
-     * 每5分钟检查一次到期的定时任务
+     * 应用启动后核对上次运行中断的执行中任务，并为缺少触发器的任务补建Quartz触发器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncTriggers() {
+        int reconciled = scheduledTaskService.reconcileOnStartup();
+        if (reconciled > 0) {
+            logger.info("核对中断的执行中任务 {} 个", reconciled);
+        }
+        int created = scheduledTaskService.syncTriggers();
+        if (created > 0) {
+            logger.info("为 {} 个定时任务补建触发器", created);
+        }
+    }
+
+    /**
+     * 每5分钟补偿扫描一次：回收租约过期的任务，批量领取逾期仍未被Quartz触发的任务
+     * （任务按时触发由Quartz负责）
      */
     @Scheduled(cron = "0 */5 * * * ?")
     public void checkDueTasks() {
-        logger.info("开始检查到期的定时任务...");
-        scheduledTaskService.checkAndExecuteDueTasks();
-        logger.info("检查到期定时任务完成");
+        int recovered = scheduledTaskService.recoverExpiredLeases();
+        int claimed = scheduledTaskService.claimDueTasks();
+        if (recovered > 0 || claimed > 0) {
+            logger.info("补偿扫描完成, 回收 {} 个, 领取逾期任务 {} 个", recovered, claimed);
+        }
+    }
+
+    /**
+     * 每分钟为本节点执行中的任务续租
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void renewLeases() {
+        scheduledTaskService.renewLeases();
     }
 
     /**
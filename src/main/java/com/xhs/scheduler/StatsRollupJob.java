@@ -0,0 +1,27 @@
+package com.xhs.scheduler;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import java.util.Objects;
+
+/**
+ * 发布统计汇总刷新的Quartz作业
+ * 由集群中的一个节点触发，且同一时间只有一个节点在执行，避免多个节点同时删除并写入同一天的汇总
+ */
+@DisallowConcurrentExecution
+public class StatsRollupJob extends QuartzJobBean {
+
+    private final StatsRollupScheduler statsRollupScheduler;
+
+    // 构造函数（由Spring的作业工厂注入依赖）
+    public StatsRollupJob(StatsRollupScheduler statsRollupScheduler) {
+        this.statsRollupScheduler = Objects.requireNonNull(statsRollupScheduler, "statsRollupScheduler must not be null");
+    }
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        statsRollupScheduler.refreshRollup();
+    }
+}
@@ -0,0 +1,113 @@
+package com.xhs.scheduler;
+
+import com.xhs.service.StatsService;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * 发布统计汇总刷新
+ * 定期从发布历史重新计算最近几天的汇总（覆盖跨天及补写的记录），汇总表为空时先回填全部历史；
+ * 由集群Quartz作业 {@link StatsRollupJob} 触发，同一时间只有一个节点刷新
+ */
+@Component
+public class StatsRollupScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsRollupScheduler.class);
+
+    private static final JobKey JOB_KEY = JobKey.jobKey("stats-rollup", "stats");
+    private static final TriggerKey TRIGGER_KEY = TriggerKey.triggerKey("stats-rollup", "stats");
+
+    private final StatsService statsService;
+    private final Scheduler scheduler;
+
+    // 每次刷新的最近天数（含今天）
+    @Value("${stats.rollup.recent-days:2}")
+    private int recentDays;
+
+    // 启动后首次刷新的延迟
+    @Value("${stats.rollup.initial-delay-ms:30000}")
+    private long initialDelayMs;
+
+    // 刷新间隔
+    @Value("${stats.rollup.interval-ms:600000}")
+    private long intervalMs;
+
+    // 构造函数
+    public StatsRollupScheduler(StatsService statsService, Scheduler scheduler) {
+        this.statsService = Objects.requireNonNull(statsService, "statsService must not be null");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+    }
+
+    /**
+     * 应用启动后创建或更新刷新作业的触发器，按固定间隔重复，错过的触发不补执行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRollup() {
+        try {
+            JobDetail job = JobBuilder.newJob(StatsRollupJob.class)
+                    .withIdentity(JOB_KEY)
+                    .storeDurably()
+                    .build();
+            Trigger trigger = TriggerBuilder.newTrigger()
+                    .withIdentity(TRIGGER_KEY)
+                    .forJob(job)
+                    .startAt(new Date(System.currentTimeMillis() + initialDelayMs))
+                    .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                            .withIntervalInMilliseconds(intervalMs)
+                            .repeatForever()
+                            .withMisfireHandlingInstructionNextWithRemainingCount())
+                    .build();
+
+            scheduler.addJob(job, true);
+            if (scheduler.checkExists(TRIGGER_KEY)) {
+                scheduler.rescheduleJob(TRIGGER_KEY, trigger);
+            } else {
+                scheduler.scheduleJob(trigger);
+            }
+        } catch (ObjectAlreadyExistsException e) {
+            // 其他节点同时启动并已创建触发器
+            logger.debug("发布统计汇总刷新作业的触发器已由其他节点创建");
+        } catch (SchedulerException e) {
+            logger.error("创建发布统计汇总刷新作业失败", e);
+        }
+    }
+
+    /**
+     * 刷新汇总（由 {@link StatsRollupJob} 调用）
+     */
+    public void refreshRollup() {
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate from = today.minusDays(Math.max(recentDays, 1) - 1L);
+            if (statsService.isRollupEmpty()) {
+                LocalDate first = statsService.getFirstPublishDate();
+                if (first != null && first.isBefore(from)) {
+                    logger.info("发布统计汇总为空, 从 {} 开始回填", first);
+                    from = first;
+                }
+            }
+            int written = statsService.refreshRollup(from, today);
+            logger.debug("发布统计汇总已刷新, {} 至 {}, 写入 {} 行", from, today, written);
+        } catch (Exception e) {
+            logger.error("刷新发布统计汇总失败", e);
+        }
+    }
+}
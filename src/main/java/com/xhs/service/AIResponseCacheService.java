@@ -0,0 +1,189 @@
+package com.xhs.service;
+
+import com.xhs.dto.GenerationResult;
+import com.xhs.entity.AIResponseCache;
+import com.xhs.repository.AIResponseCacheRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/**
+ * AI响应缓存
+ * 以 规范化提示词 + 服务商 + 模型 + 参数 + API Key指纹 的哈希为键，内存LRU/TTL一级缓存，可选MySQL二级缓存
+ * 不同API Key之间不共享生成结果，无效的API Key也不会命中其他Key生成的缓存
+ */
+@Service
+public class AIResponseCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AIResponseCacheService.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static final String TIER_MEMORY = "memory";
+    public static final String TIER_DATABASE = "database";
+
+    private final AIResponseCacheRepository cacheRepository;
+
+    @Value("${ai.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.cache.memory.max-size:1000}")
+    private int memoryMaxSize;
+
+    @Value("${ai.cache.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${ai.cache.persistent.enabled:false}")
+    private boolean persistentEnabled;
+
+    private record MemoryEntry(String content, long expiresAtMillis) {
+    }
+
+    // accessOrder=true，超出容量时淘汰最近最少使用的条目
+    private final LinkedHashMap<String, MemoryEntry> memoryCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+            return size() > memoryMaxSize;
+        }
+    };
+
+    // 构造函数
+    public AIResponseCacheService(AIResponseCacheRepository cacheRepository) {
+        this.cacheRepository = Objects.requireNonNull(cacheRepository, "cacheRepository must not be null");
+    }
+
+    /**
+     * 优先从缓存获取结果，未命中时调用AI生成并写入缓存
+     * @param providerType AI提供商类型
+     * @param apiKey 调用使用的API Key（只参与计算缓存键，不保存）
+     * @param prompt 提示词
+     * @param params 生成参数
+     * @param generator 实际的AI调用
+     * @return 生成结果
+     */
+    public GenerationResult getOrGenerate(String providerType, String apiKey, String prompt, Map<String, Object> params,
+                                          Callable<String> generator) throws Exception {
+        if (!enabled) {
+            return GenerationResult.miss(generator.call());
+        }
+
+        String cacheKey = buildCacheKey(providerType, apiKey, prompt, params);
+        long now = System.currentTimeMillis();
+
+        // 1. 内存缓存
+        synchronized (memoryCache) {
+            MemoryEntry entry = memoryCache.get(cacheKey);
+            if (entry != null) {
+                if (entry.expiresAtMillis() > now) {
+                    return new GenerationResult(entry.content(), true, TIER_MEMORY);
+                }
+                memoryCache.remove(cacheKey);
+            }
+        }
+
+        // 2. 数据库缓存
+        if (persistentEnabled) {
+            try {
+                var persisted = cacheRepository.findByCacheKeyAndExpiresAtAfter(cacheKey, LocalDateTime.now());
+                if (persisted.isPresent()) {
+                    AIResponseCache cache = persisted.get();
+                    cacheRepository.incrementHitCount(cache.getId());
+                    putMemory(cacheKey, cache.getResponse(), now);
+                    return new GenerationResult(cache.getResponse(), true, TIER_DATABASE);
+                }
+            } catch (Exception e) {
+                // 缓存不可用时不影响生成
+                logger.warn("读取AI响应缓存失败: {}", e.getMessage());
+            }
+        }
+
+        // 3. 调用AI生成
+        String content = generator.call();
+        if (content == null || content.isBlank()) {
+            return GenerationResult.miss(content);
+        }
+
+        putMemory(cacheKey, content, now);
+        if (persistentEnabled) {
+            persist(cacheKey, providerType, params, content);
+        }
+        return GenerationResult.miss(content);
+    }
+
+    /**
+     * 清空内存缓存
+     */
+    public void clearMemory() {
+        synchronized (memoryCache) {
+            memoryCache.clear();
+        }
+    }
+
+    /**
+     * 每小时清理数据库中的过期缓存
+     */
+    @Scheduled(cron = "0 30 * * * ?")
+    public void cleanupExpired() {
+        if (!enabled || !persistentEnabled) {
+            return;
+        }
+        int deleted = cacheRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("清理过期AI响应缓存 {} 条", deleted);
+        }
+    }
+
+    private void putMemory(String cacheKey, String content, long now) {
+        synchronized (memoryCache) {
+            memoryCache.put(cacheKey, new MemoryEntry(content, now + ttlMinutes * 60 * 1000L));
+        }
+    }
+
+    private void persist(String cacheKey, String providerType, Map<String, Object> params, String content) {
+        try {
+            AIResponseCache cache = cacheRepository.findByCacheKey(cacheKey).orElseGet(AIResponseCache::new);
+            cache.setCacheKey(cacheKey);
+            cache.setProviderType(providerType);
+            cache.setModel(String.valueOf(params.getOrDefault("model", "default")));
+            cache.setResponse(content);
+            cache.setExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+            cacheRepository.save(cache);
+        } catch (Exception e) {
+            logger.warn("写入AI响应缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 计算缓存键：SHA-256(服务商 | 模型 | API Key指纹 | 排序后的参数 | 规范化提示词)
+     */
+    private String buildCacheKey(String providerType, String apiKey, String prompt, Map<String, Object> params) {
+        String normalizedPrompt = prompt == null ? "" : WHITESPACE.matcher(prompt.strip()).replaceAll(" ");
+        Map<String, Object> sortedParams = new TreeMap<>(params);
+        Object model = sortedParams.getOrDefault("model", "default");
+
+        String raw = providerType + "|" + model + "|" + sha256(apiKey == null ? "" : apiKey) + "|" + sortedParams + "|" + normalizedPrompt;
+        return sha256(raw);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.xhs.service;
 import com.xhs.ai.AIProviderFactory;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface AIService {
 
@@ -16,6 +18,17 @@ public interface AIService {
      */
     String generateContent(String providerType, String apiKey, String prompt, Map<String, Object> params) throws Exception;
 
+    /**
+     * 流式生成内容
+     * @param providerType AI提供商类型
+     * @param apiKey API密钥
+     * @param prompt 提示词
+     * @param params 额外参数
+     * @param onChunk 增量文本回调
+     * @return 生成结束（或失败）时完成的Future
+     */
+    CompletableFuture<Void> streamContent(String providerType, String apiKey, String prompt, Map<String, Object> params, Consumer<String> onChunk);
+
     /**
      * 测试AI连接
      * @param providerType AI提供商类型
@@ -0,0 +1,35 @@
+package com.xhs.service;
+
+import com.xhs.entity.BatchGenerationItem;
+import com.xhs.entity.BatchGenerationJob;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BatchGenerationService {
+
+    /**
+     * 创建批量生成任务并立即开始处理
+     * @param providerType AI提供商类型
+     * @param apiKey API密钥（只在内存中使用，不持久化）
+     * @param topics 主题/原始文本列表
+     * @param imageType 图片类型：cover 或 content
+     * @return 批量任务（含任务ID，用于查询进度）
+     */
+    BatchGenerationJob createJob(String providerType, String apiKey, List<String> topics, String imageType);
+
+    /**
+     * 获取批量任务进度
+     * @param jobId 任务ID
+     * @return 批量任务
+     */
+    Optional<BatchGenerationJob> getJob(Long jobId);
+
+    /**
+     * 获取批量任务的条目结果
+     * @param jobId 任务ID
+     * @param status 条目状态，为空时返回全部
+     * @return 条目列表
+     */
+    List<BatchGenerationItem> getJobItems(Long jobId, String status);
+}
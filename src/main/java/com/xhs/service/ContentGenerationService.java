@@ -1,8 +1,13 @@
 package com.xhs.service;
 
 import com.xhs.analysis.ContentAnalysis;
+import com.xhs.dto.GenerationResult;
+import com.xhs.dto.TitleCandidate;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface ContentGenerationService {
 
@@ -30,18 +35,60 @@ public interface ContentGenerationService {
      * @param apiKey API密钥
      * @param analysis 内容分析结果
      * @param originalText 原始文本
-     * @return 生成的小红书文案
+     * @return 生成的小红书文案（相同输入会命中缓存）
      */
-    String generateXiaohongshuContent(String providerType, String apiKey, ContentAnalysis analysis, String originalText) throws Exception;
+    GenerationResult generateXiaohongshuContent(String providerType, String apiKey, ContentAnalysis analysis, String originalText) throws Exception;
+
+    /**
+     * 异步生成小红书文案，便于与标题生成并行
+     * @param providerType AI提供商类型
+     * @param apiKey API密钥
+     * @param analysis 内容分析结果
+     * @param originalText 原始文本
+     * @return 生成结果的Future
+     */
+    CompletableFuture<GenerationResult> generateXiaohongshuContentAsync(String providerType, String apiKey, ContentAnalysis analysis, String originalText);
+
+    /**
+     * 根据分析结果流式生成小红书文案
+     * @param providerType AI提供商类型
+     * @param apiKey API密钥
+     * @param analysis 内容分析结果
+     * @param originalText 原始文本
+     * @param onChunk 增量文本回调
+     * @return 生成结束（或失败）时完成的Future
+     */
+    CompletableFuture<Void> streamXiaohongshuContent(String providerType, String apiKey, ContentAnalysis analysis, String originalText, Consumer<String> onChunk);
 
     /**
      * 生成小红书标题
      * @param providerType AI提供商类型
      * @param apiKey API密钥
      * @param content 内容
-     * @return 生成的标题
+     * @return 生成的标题（相同输入会命中缓存）
+     */
+    GenerationResult generateTitle(String providerType, String apiKey, String content) throws Exception;
+
+    /**
+     * 直接根据原始文本和分析结果并发生成多个候选标题（不依赖文案生成结果），按得分从高到低排序
+     * @param providerType AI提供商类型
+     * @param apiKey API密钥
+     * @param analysis 内容分析结果
+     * @param originalText 原始文本
+     * @param count 候选数量
+     * @return 排序后的候选标题的Future
+     */
+    CompletableFuture<List<TitleCandidate>> generateTitleCandidatesAsync(String providerType, String apiKey, ContentAnalysis analysis, String originalText, int count);
+
+    /**
+     * 根据生成的文案微调标题
+     * @param providerType AI提供商类型
+     * @param apiKey API密钥
+     * @param title 初拟标题
+     * @param content 生成的文案
+     * @return 微调后的标题
      */
-    String generateTitle(String providerType, String apiKey, String content) throws Exception;
+    GenerationResult refineTitle(String providerType, String apiKey, String title, String content) throws Exception;
 
     /**
      * 前端页面生成内容
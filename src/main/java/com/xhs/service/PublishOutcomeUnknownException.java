@@ -0,0 +1,15 @@
+package com.xhs.service;
+
+/**
+ * 已点击发布但无法确认发布结果（笔记可能已发出），自动重试可能重复发布，需人工确认
+ */
+public class PublishOutcomeUnknownException extends RuntimeException {
+
+    public PublishOutcomeUnknownException(String message) {
+        super(message);
+    }
+
+    public PublishOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
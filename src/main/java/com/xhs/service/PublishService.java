@@ -1,16 +1,20 @@
 package com.xhs.service;
 
+import com.microsoft.playwright.Page;
 import com.xhs.browser.BrowserAutomationService;
+import com.xhs.dto.CursorPage;
+import com.xhs.dto.PublishHistorySummary;
 import com.xhs.entity.BrowserEnvironment;
 import com.xhs.entity.PublishHistory;
 import com.xhs.entity.User;
 import com.xhs.repository.BrowserEnvironmentRepository;
 import com.xhs.repository.PublishHistoryRepository;
 import com.xhs.repository.UserRepository;
+import com.xhs.utils.PublishStatusMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,6 +24,19 @@ import java.util.Objects;
 public class PublishService {
 
     private static final Logger logger = LoggerFactory.getLogger(PublishService.class);
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // 发布阶段
+    public static final String STAGE_PREPARE = "PREPARE";
+    public static final String STAGE_ACQUIRE_SESSION = "ACQUIRE_SESSION";
+    public static final String STAGE_UPLOAD_MEDIA = "UPLOAD_MEDIA";
+    public static final String STAGE_FILL = "FILL";
+    public static final String STAGE_SUBMIT = "SUBMIT";
+    public static final String STAGE_CONFIRM = "CONFIRM";
+
     private final BrowserAutomationService browserAutomationService;
     private final BrowserEnvironmentRepository browserEnvironmentRepository;
     private final UserRepository userRepository;
@@ -36,70 +53,170 @@ public class PublishService {
 
     /**
      * 发布小红书笔记
+     * 按 准备 → 获取会话 → 上传图片 → 填写 → 提交 → 确认 分阶段执行，浏览器操作不在事务中进行，
+     * 每个阶段只用一次短事务更新发布记录的阶段，结束时写入结果
      * @param userId 用户ID
      * @param title 标题
      * @param content 内容
      * @param imagePaths 图片路径数组
-     * @return 发布历史记录
+     * @return 发布历史记录，发布失败时为失败状态的记录
      */
-    @Transactional
     public PublishHistory publishNote(Long userId, String title, String content, String[] imagePaths) {
+        PublishHistory publishHistory = createHistory(userId, null, title, content);
+        try {
+            publish(publishHistory, userId, title, content, imagePaths);
+        } catch (RuntimeException e) {
+            // 失败结果已写入发布记录
+        }
+        return publishHistory;
+    }
+
+    /**
+     * 发布定时任务的小红书笔记，发布记录关联任务ID，用于中断后核对发布结果
+     * @param userId 用户ID
+     * @param taskId 定时任务ID
+     * @param title 标题
+     * @param content 内容
+     * @param imagePaths 图片路径数组
+     * @return 发布成功的发布历史记录
+     * @throws IllegalArgumentException 用户或默认浏览器环境不存在
+     * @throws PublishOutcomeUnknownException 已点击发布但无法确认发布结果
+     * @throws RuntimeException 其他发布失败，失败结果已写入发布记录
+     */
+    public PublishHistory publishNote(Long userId, Long taskId, String title, String content, String[] imagePaths) {
+        PublishHistory publishHistory = createHistory(userId, taskId, title, content);
+        publish(publishHistory, userId, title, content, imagePaths);
+        return publishHistory;
+    }
+
+    // 创建进行中的发布记录
+    private PublishHistory createHistory(Long userId, Long taskId, String title, String content) {
+        // 获取用户信息
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("用户不存在"));
+
         // 创建发布历史记录
         PublishHistory publishHistory = new PublishHistory();
+        publishHistory.setUser(user);
+        publishHistory.setTaskId(taskId);
         publishHistory.setTitle(title);
         publishHistory.setContent(content);
-        publishHistory.setStatus("PENDING");
+        publishHistory.setStatus(STATUS_PENDING);
+        publishHistory.setStage(STAGE_PREPARE);
         publishHistory.setCreatedAt(LocalDateTime.now());
         publishHistory.setUpdatedAt(LocalDateTime.now());
-        
-        // 获取用户信息
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("用户不存在"));
-        publishHistory.setUser(user);
-        
-        // 保存发布历史记录
-        publishHistory = publishHistoryRepository.save(publishHistory);
-        
+        return publishHistoryRepository.save(publishHistory);
+    }
+
+    // 分阶段执行发布并写入结果，失败时写入失败结果后抛出异常
+    private void publish(PublishHistory publishHistory, Long userId, String title, String content, String[] imagePaths) {
+        Long environmentId = null;
+        Page page = null;
+        boolean rejected = false;
         try {
             // 获取默认浏览器环境
             BrowserEnvironment environment = browserEnvironmentRepository.findByUserIdAndIsDefaultTrue(userId)
                     .orElseThrow(() -> new IllegalArgumentException("未找到默认浏览器环境"));
-            
-            // 为用户创建浏览器上下文
+
+            // 为用户创建浏览器上下文并登录小红书
+            advanceStage(publishHistory, STAGE_ACQUIRE_SESSION);
             browserAutomationService.createBrowserContext(environment);
-            
-            // 登录小红书
-            boolean loginSuccess = browserAutomationService.login(environment.getId(), user.getPhone());
-            if (!loginSuccess) {
+            environmentId = environment.getId();
+            if (!browserAutomationService.login(environment.getId(), publishHistory.getUser().getPhone())) {
                 throw new RuntimeException("登录失败");
             }
-            
-            // 发布笔记
-            boolean publishSuccess = browserAutomationService.publishNote(environment.getId(), title, content, imagePaths);
-            if (!publishSuccess) {
-                throw new RuntimeException("发布笔记失败");
+
+            // 进入发布页面并上传图片
+            advanceStage(publishHistory, STAGE_UPLOAD_MEDIA);
+            page = browserAutomationService.openPublishPage(environment.getId());
+            browserAutomationService.uploadImages(page, imagePaths);
+
+            // 输入标题和内容
+            advanceStage(publishHistory, STAGE_FILL);
+            browserAutomationService.fillNote(page, title, content);
+
+            // 点击发布
+            advanceStage(publishHistory, STAGE_SUBMIT);
+            PublishStatusMonitor.PublishWatch watch = browserAutomationService.submitNote(page);
+
+            // 等待发布结果，以发布接口响应为准并记录笔记ID
+            advanceStage(publishHistory, STAGE_CONFIRM);
+            PublishStatusMonitor.PublishResult result = browserAutomationService.confirmPublish(watch);
+            if (result.status() == PublishStatusMonitor.PublishStatus.FAILED) {
+                rejected = true;
+                throw new RuntimeException("发布笔记失败" + (result.message() != null ? ": " + result.message() : ""));
             }
-            
-            // 更新发布历史记录状态
-            publishHistory.setStatus("SUCCESS");
-            publishHistory.setPublishedTime(LocalDateTime.now());
+            if (result.status() != PublishStatusMonitor.PublishStatus.SUCCESS) {
+                // 已点击发布但结果未知，自动重试可能重复发布，需人工确认后重放
+                throw new PublishOutcomeUnknownException("无法确认发布状态" + (result.message() != null ? ": " + result.message() : ""));
+            }
+
+            finish(publishHistory, STATUS_SUCCESS, result.noteId(), null);
             logger.info("用户 {} 发布笔记成功, 标题: {}", userId, title);
-        } catch (Exception e) {
-            // 更新发布历史记录状态
-            publishHistory.setStatus("FAILED");
-            publishHistory.setErrorMessage(e.getMessage());
-            logger.error("用户 {} 发布笔记失败, 标题: {}: {}", userId, title, e.getMessage(), e);
+        } catch (RuntimeException e) {
+            // 提交或确认阶段出错（如点击后超时、页面崩溃）时笔记可能已发出，除明确被拒绝外都按结果未知处理，不自动重试
+            RuntimeException failure = e;
+            if (reachedSubmit(publishHistory.getStage()) && !rejected && !(e instanceof PublishOutcomeUnknownException)) {
+                failure = new PublishOutcomeUnknownException("无法确认发布状态, 阶段: " + publishHistory.getStage() + ": " + e.getMessage(), e);
+            }
+            finish(publishHistory, STATUS_FAILED, null, failure.getMessage());
+            logger.error("用户 {} 发布笔记失败, 标题: {}, 阶段: {}: {}", userId, title, publishHistory.getStage(), failure.getMessage(), e);
+            throw failure;
         } finally {
-            // 关闭浏览器上下文
-            // 注意：如果需要保持登录状态，可以不关闭浏览器上下文
-            // browserAutomationService.closeBrowserContext(environment.getId());
-            
-            // 更新发布历史记录
-            publishHistory.setUpdatedAt(LocalDateTime.now());
-            publishHistoryRepository.save(publishHistory);
+            // 只关闭发布页面并归还浏览器上下文，上下文保留登录状态供下次发布复用
+            if (page != null) {
+                page.close();
+            }
+            if (environmentId != null) {
+                browserAutomationService.releaseBrowserContext(environmentId);
+            }
         }
-        
-        return publishHistory;
+    }
+
+    /**
+     * 将中断的发布记录标记为失败（如应用在发布过程中退出）
+     * @param historyId 发布历史ID
+     * @param errorMessage 失败原因
+     * @return 是否已标记；记录已有结果时返回false
+     */
+    public boolean markInterrupted(Long historyId, String errorMessage) {
+        return publishHistoryRepository.finish(historyId, STATUS_PENDING, STATUS_FAILED, null, errorMessage, null, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * 发布是否已进行到提交阶段（之后出错时笔记可能已发出）；没有阶段的旧记录无法判断，按已提交处理
+     * @param stage 发布阶段
+     * @return 是否已进行到提交或确认阶段
+     */
+    public static boolean reachedSubmit(String stage) {
+        return stage == null || STAGE_SUBMIT.equals(stage) || STAGE_CONFIRM.equals(stage);
+    }
+
+    /**
+     * 进入下一个发布阶段
+     */
+    private void advanceStage(PublishHistory publishHistory, String stage) {
+        LocalDateTime now = LocalDateTime.now();
+        publishHistoryRepository.updateStage(publishHistory.getId(), STATUS_PENDING, stage, now);
+        publishHistory.setStage(stage);
+        publishHistory.setUpdatedAt(now);
+    }
+
+    /**
+     * 写入发布结果
+     */
+    private void finish(PublishHistory publishHistory, String status, String noteId, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        if (errorMessage != null && errorMessage.length() > 500) {
+            errorMessage = errorMessage.substring(0, 500);
+        }
+        LocalDateTime publishedTime = STATUS_SUCCESS.equals(status) ? now : null;
+        publishHistoryRepository.finish(publishHistory.getId(), STATUS_PENDING, status, noteId, errorMessage, publishedTime, now);
+        publishHistory.setStatus(status);
+        publishHistory.setNoteId(noteId);
+        publishHistory.setErrorMessage(errorMessage);
+        publishHistory.setPublishedTime(publishedTime);
+        publishHistory.setUpdatedAt(now);
     }
 
     /**
@@ -121,6 +238,20 @@ public class PublishService {
         return user.getPublishHistory();
     }
 
+    /**
+     * 分页获取发布历史列表项（不含正文）
+     * @param userId 用户ID，为空时查询所有用户
+     * @param status 发布状态，为空时不过滤
+     * @param cursor 游标（上一页的 nextCursor），为空时从最新的记录开始
+     * @param size 每页条数
+     * @return 分页结果
+     */
+    public CursorPage<PublishHistorySummary> getPublishHistorySummaries(Long userId, String status, Long cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<PublishHistorySummary> rows = publishHistoryRepository.findSummaries(userId, status, cursor, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, PublishHistorySummary::getId);
+    }
+
     /**
      * 获取发布历史详情
      * @param historyId 发布历史ID
@@ -1,6 +1,9 @@
 package com.xhs.service;
 
+import com.xhs.dto.CursorPage;
+import com.xhs.dto.ScheduledTaskSummary;
 import com.xhs.entity.ScheduledTask;
+import com.xhs.entity.ScheduledTaskOccurrence;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,6 +24,16 @@ public interface ScheduledTaskService {
      */
     List<ScheduledTask> getScheduledTasksByUserId(Long userId);
 
+    /**
+     * 分页获取定时任务列表项（不含正文）
+     * @param userId 用户ID，为空时查询所有用户
+     * @param status 任务状态，为空时不过滤
+     * @param cursor 游标（上一页的 nextCursor），为空时从最新的任务开始
+     * @param size 每页条数
+     * @return 分页结果
+     */
+    CursorPage<ScheduledTaskSummary> getTaskSummaries(Long userId, String status, Long cursor, Integer size);
+
     /**
      * 获取单个定时任务
      * @param taskId 任务ID
@@ -91,6 +104,36 @@ public interface ScheduledTaskService {
      */
     List<ScheduledTask> getTasksBetweenTimes(LocalDateTime startTime, LocalDateTime endTime);
 
+    /**
+     * 获取重复任务已展开的执行时间点
+     * @param taskId 任务ID
+     * @return 时间点列表
+     */
+    List<ScheduledTaskOccurrence> getTaskOccurrences(Long taskId);
+
+    /**
+     * 获取指定时间范围内的执行时间点
+     * @param userId 用户ID，为空时查询所有用户
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 时间点列表
+     */
+    List<ScheduledTaskOccurrence> getOccurrencesBetweenTimes(Long userId, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 重放死信任务：重置重试计数并立即重新派发
+     * @param taskId 任务ID
+     * @return 是否重放（任务不是死信状态时返回false）
+     */
+    boolean replayTask(Long taskId);
+
+    /**
+     * 重放所有死信任务
+     * @param userId 用户ID，为空时重放所有用户的死信任务
+     * @return 重放的任务数
+     */
+    int replayDeadLetterTasks(Long userId);
+
     long count();
     long countPending();
     long countCompleted();
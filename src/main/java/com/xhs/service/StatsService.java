@@ -0,0 +1,49 @@
+package com.xhs.service;
+
+import com.xhs.dto.DailyPublishStat;
+import com.xhs.dto.UserPublishStat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统计服务
+ * 首页计数使用count查询，发布趋势和成功率读取定期刷新的汇总表，结果在短时间内缓存
+ */
+public interface StatsService {
+
+    /**
+     * 首页统计：用户数、活跃用户数、任务数、发布数、今日发布数及整体成功率
+     */
+    Map<String, Object> getHomeStats();
+
+    /**
+     * 最近N天（含今天）每天的发布数量与成功率，没有发布的日期补0
+     * @param days 天数
+     */
+    List<DailyPublishStat> getDailyPublishStats(int days);
+
+    /**
+     * 各用户的发布总数与成功率，按发布总数降序
+     */
+    List<UserPublishStat> getUserPublishStats();
+
+    /**
+     * 从发布历史重新计算指定日期范围的汇总
+     * @param from 开始日期（含）
+     * @param to 结束日期（含）
+     * @return 写入的汇总行数
+     */
+    int refreshRollup(LocalDate from, LocalDate to);
+
+    /**
+     * 汇总表是否为空（首次启动时需要回填）
+     */
+    boolean isRollupEmpty();
+
+    /**
+     * 最早的发布日期，没有发布记录时返回null
+     */
+    LocalDate getFirstPublishDate();
+}
@@ -3,46 +3,67 @@ package com.xhs.service.impl;
 import com.xhs.ai.AIAdapter;
 import com.xhs.ai.AIProviderFactory;
 import com.xhs.service.AIService;
-import lombok.RequiredArgsConstructor;
+import com.xhs.utils.KeyedTaskExecutor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
 public class AIServiceImpl implements AIService {
 
-    // 创建线程池用于异步处理AI请求
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    // AI请求执行器（虚拟线程，按服务商限制并发）
+    private final KeyedTaskExecutor aiTaskExecutor;
+
+    public AIServiceImpl(@Qualifier("aiTaskExecutor") KeyedTaskExecutor aiTaskExecutor) {
+        this.aiTaskExecutor = Objects.requireNonNull(aiTaskExecutor, "aiTaskExecutor must not be null");
+    }
 
     @Override
     public String generateContent(String providerType, String apiKey, String prompt, Map<String, Object> params) throws Exception {
-        // 同步调用AI生成内容
-        AIAdapter aiAdapter = AIProviderFactory.createProvider(providerType, apiKey);
-        return aiAdapter.generateContent(prompt, params);
+        // 同步调用AI生成内容（复用缓存的适配器），受服务商并发上限约束
+        AIAdapter aiAdapter = AIProviderFactory.getProvider(providerType, apiKey);
+        return aiTaskExecutor.execute(providerType, () -> aiAdapter.generateContent(prompt, params));
+    }
+
+    @Override
+    public CompletableFuture<Void> streamContent(String providerType, String apiKey, String prompt, Map<String, Object> params, Consumer<String> onChunk) {
+        // 异步流式生成，增量结果通过回调推送
+        return aiTaskExecutor.submit(providerType, () -> {
+            AIAdapter aiAdapter = AIProviderFactory.getProvider(providerType, apiKey);
+            aiAdapter.streamContent(prompt, params, onChunk);
+            return null;
+        });
     }
 
     @Override
     public boolean testAIConnection(String providerType, String apiKey) throws Exception {
         // 异步测试AI连接
-        CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> {
+        CompletableFuture<Boolean> future = aiTaskExecutor.submit(providerType, () -> {
             try {
-                AIAdapter aiAdapter = AIProviderFactory.createProvider(providerType, apiKey);
+                AIAdapter aiAdapter = AIProviderFactory.getProvider(providerType, apiKey);
                 return aiAdapter.testConnection();
             } catch (Exception e) {
                 return false;
             }
-        }, executorService);
+        });
 
-        // 等待测试结果，设置超时时间为10秒
-        return future.get();
+        // 等待测试结果，设置超时时间为10秒，超时后取消测试并视为连接失败
+        try {
+            return future.get(10, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return false;
+        }
     }
 
     @Override
     public Map<String, AIProviderFactory.ProviderInfo> getSupportedProviders() {
         return AIProviderFactory.listProviders();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,270 @@
+package com.xhs.service.impl;
+
+import com.xhs.ai.AIProviderFactory;
+import com.xhs.ai.AIRateLimitException;
+import com.xhs.analysis.ContentAnalysis;
+import com.xhs.dto.GenerationResult;
+import com.xhs.entity.BatchGenerationItem;
+import com.xhs.entity.BatchGenerationJob;
+import com.xhs.repository.BatchGenerationItemRepository;
+import com.xhs.repository.BatchGenerationJobRepository;
+import com.xhs.service.BatchGenerationService;
+import com.xhs.service.ContentGenerationService;
+import com.xhs.utils.KeyedTaskExecutor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批量生成服务
+ * 每个任务启动固定数量的处理通道，各通道从共享游标依次领取条目，执行 分析 → 文案 → 标题 流水线；
+ * AI调用本身仍受服务商并发上限约束。遇到限流时整个服务商进入冷却期，所有通道等待后重试。
+ * 每个条目完成后立即落库，任务进度可随时查询
+ */
+@Service
+public class BatchGenerationServiceImpl implements BatchGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchGenerationServiceImpl.class);
+
+    // 任务状态
+    public static final String JOB_RUNNING = "RUNNING";
+    public static final String JOB_COMPLETED = "COMPLETED";
+    public static final String JOB_FAILED = "FAILED";
+    public static final String JOB_INTERRUPTED = "INTERRUPTED";
+
+    // 条目状态
+    public static final String ITEM_PENDING = "PENDING";
+    public static final String ITEM_RUNNING = "RUNNING";
+    public static final String ITEM_SUCCESS = "SUCCESS";
+    public static final String ITEM_FAILED = "FAILED";
+
+    private static final long MAX_BACKOFF_MS = 60_000L;
+
+    private final BatchGenerationJobRepository jobRepository;
+    private final BatchGenerationItemRepository itemRepository;
+    private final ContentGenerationService contentGenerationService;
+    private final KeyedTaskExecutor aiTaskExecutor;
+
+    @Value("${batch.max-topics:500}")
+    private int maxTopics;
+
+    @Value("${batch.concurrency-per-job:4}")
+    private int concurrencyPerJob;
+
+    @Value("${batch.rate-limit.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${batch.rate-limit.base-backoff-ms:2000}")
+    private long baseBackoffMs;
+
+    // 服务商限流冷却截止时间（毫秒时间戳）
+    private final Map<String, AtomicLong> providerCooldowns = new ConcurrentHashMap<>();
+
+    public BatchGenerationServiceImpl(BatchGenerationJobRepository jobRepository,
+                                      BatchGenerationItemRepository itemRepository,
+                                      ContentGenerationService contentGenerationService,
+                                      @Qualifier("aiTaskExecutor") KeyedTaskExecutor aiTaskExecutor) {
+        this.jobRepository = jobRepository;
+        this.itemRepository = itemRepository;
+        this.contentGenerationService = contentGenerationService;
+        this.aiTaskExecutor = aiTaskExecutor;
+    }
+
+    /**
+     * API密钥不落库，重启前未完成的任务无法继续，统一标记为中断
+     */
+    @PostConstruct
+    public void markInterruptedJobs() {
+        List<BatchGenerationJob> runningJobs = jobRepository.findByStatus(JOB_RUNNING);
+        if (runningJobs.isEmpty()) {
+            return;
+        }
+        List<Long> jobIds = runningJobs.stream().map(BatchGenerationJob::getId).toList();
+        itemRepository.failUnfinished(jobIds, List.of(ITEM_PENDING, ITEM_RUNNING), ITEM_FAILED, "服务重启，任务中断");
+        for (Long jobId : jobIds) {
+            jobRepository.updateStatus(jobId, JOB_INTERRUPTED, LocalDateTime.now());
+        }
+        logger.warn("{} 个批量生成任务因服务重启被标记为中断", jobIds.size());
+    }
+
+    @Override
+    public BatchGenerationJob createJob(String providerType, String apiKey, List<String> topics, String imageType) {
+        if (!AIProviderFactory.isProviderSupported(providerType)) {
+            throw new IllegalArgumentException("不支持的AI提供商: " + providerType);
+        }
+        List<String> validTopics = topics == null ? List.of()
+                : topics.stream().filter(topic -> topic != null && !topic.isBlank()).map(String::trim).toList();
+        if (validTopics.isEmpty()) {
+            throw new IllegalArgumentException("主题列表不能为空");
+        }
+        if (validTopics.size() > maxTopics) {
+            throw new IllegalArgumentException("单个批量任务最多 " + maxTopics + " 个主题，当前 " + validTopics.size() + " 个");
+        }
+
+        BatchGenerationJob job = new BatchGenerationJob();
+        job.setProviderType(providerType);
+        job.setImageType(imageType);
+        job.setStatus(JOB_RUNNING);
+        job.setTotalCount(validTopics.size());
+        job = jobRepository.save(job);
+
+        List<BatchGenerationItem> items = new ArrayList<>(validTopics.size());
+        for (int i = 0; i < validTopics.size(); i++) {
+            BatchGenerationItem item = new BatchGenerationItem();
+            item.setJob(job);
+            item.setItemIndex(i);
+            item.setTopic(validTopics.get(i));
+            item.setStatus(ITEM_PENDING);
+            items.add(item);
+        }
+        items = itemRepository.saveAll(items);
+
+        start(job, apiKey, items);
+        logger.info("批量生成任务 {} 已创建, 服务商: {}, 条目数: {}", job.getId(), providerType, items.size());
+        return job;
+    }
+
+    @Override
+    public Optional<BatchGenerationJob> getJob(Long jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    @Override
+    public List<BatchGenerationItem> getJobItems(Long jobId, String status) {
+        if (status == null || status.isBlank()) {
+            return itemRepository.findByJobIdOrderByItemIndex(jobId);
+        }
+        return itemRepository.findByJobIdAndStatusOrderByItemIndex(jobId, status);
+    }
+
+    /**
+     * 启动处理通道，全部结束后更新任务状态
+     */
+    private void start(BatchGenerationJob job, String apiKey, List<BatchGenerationItem> items) {
+        Long jobId = job.getId();
+        String laneKey = "batch-" + jobId;
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        int lanes = Math.max(1, Math.min(concurrencyPerJob, items.size()));
+
+        List<CompletableFuture<Void>> laneFutures = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            laneFutures.add(aiTaskExecutor.submit(laneKey, () -> {
+                int index;
+                while ((index = cursor.getAndIncrement()) < items.size()) {
+                    if (processItem(job, apiKey, items.get(index))) {
+                        succeeded.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(laneFutures.toArray(CompletableFuture<?>[]::new)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.error("批量生成任务 {} 异常结束", jobId, error);
+                itemRepository.failUnfinished(List.of(jobId), List.of(ITEM_PENDING, ITEM_RUNNING), ITEM_FAILED, "任务异常结束");
+            }
+            String status = succeeded.get() > 0 ? JOB_COMPLETED : JOB_FAILED;
+            jobRepository.updateStatus(jobId, status, LocalDateTime.now());
+            logger.info("批量生成任务 {} 结束, 状态: {}, 成功: {}/{}", jobId, status, succeeded.get(), items.size());
+        });
+    }
+
+    /**
+     * 处理单个条目，结果立即落库
+     * @return 是否成功
+     */
+    private boolean processItem(BatchGenerationJob job, String apiKey, BatchGenerationItem item) {
+        String providerType = job.getProviderType();
+        item.setStatus(ITEM_RUNNING);
+        itemRepository.save(item);
+
+        try {
+            ContentAnalysis analysis = contentGenerationService.analyzeContent(item.getTopic(), job.getImageType());
+
+            GenerationResult content = callWithBackoff(providerType, item,
+                    () -> contentGenerationService.generateXiaohongshuContent(providerType, apiKey, analysis, item.getTopic()));
+            GenerationResult title = callWithBackoff(providerType, item,
+                    () -> contentGenerationService.generateTitle(providerType, apiKey, content.getContent()));
+
+            item.setContent(content.getContent());
+            item.setTitle(truncate(title.getContent(), 200));
+            item.setCacheHit(content.isCacheHit() && title.isCacheHit());
+            item.setStatus(ITEM_SUCCESS);
+            item.setErrorMessage(null);
+            itemRepository.save(item);
+            jobRepository.incrementCompleted(job.getId());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markFailed(job, item, "任务被中断");
+            return false;
+        } catch (Exception e) {
+            logger.warn("批量生成任务 {} 第 {} 条失败: {}", job.getId(), item.getItemIndex(), e.getMessage());
+            markFailed(job, item, e.getMessage());
+            return false;
+        }
+    }
+
+    private void markFailed(BatchGenerationJob job, BatchGenerationItem item, String message) {
+        item.setStatus(ITEM_FAILED);
+        item.setErrorMessage(truncate(message, 500));
+        itemRepository.save(item);
+        jobRepository.incrementFailed(job.getId());
+    }
+
+    @FunctionalInterface
+    private interface GenerationCall {
+        GenerationResult call() throws Exception;
+    }
+
+    /**
+     * 执行AI调用：先等待服务商冷却期结束；被限流时设置冷却期（优先使用Retry-After，否则指数退避加抖动）后重试
+     */
+    private GenerationResult callWithBackoff(String providerType, BatchGenerationItem item, GenerationCall call) throws Exception {
+        AtomicLong cooldown = providerCooldowns.computeIfAbsent(providerType, k -> new AtomicLong());
+        for (int attempt = 1; ; attempt++) {
+            long waitMs = cooldown.get() - System.currentTimeMillis();
+            if (waitMs > 0) {
+                Thread.sleep(waitMs);
+            }
+
+            item.setAttempts(item.getAttempts() + 1);
+            try {
+                return call.call();
+            } catch (AIRateLimitException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long backoffMs = e.getRetryAfterMs() > 0 ? e.getRetryAfterMs()
+                        : Math.min(MAX_BACKOFF_MS, baseBackoffMs << (attempt - 1));
+                backoffMs += ThreadLocalRandom.current().nextLong(backoffMs / 4 + 1);
+                long until = System.currentTimeMillis() + backoffMs;
+                cooldown.accumulateAndGet(until, Math::max);
+                logger.info("服务商 {} 限流, 冷却 {} ms 后重试 (第 {} 次)", providerType, backoffMs, attempt);
+            }
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+}
@@ -1,5 +1,6 @@
 package com.xhs.service.impl;
 
+import com.xhs.browser.SessionStateStore;
 import com.xhs.entity.BrowserEnvironment;
 import com.xhs.entity.User;
 import com.xhs.repository.BrowserEnvironmentRepository;
@@ -18,6 +19,7 @@ public class BrowserEnvironmentServiceImpl implements BrowserEnvironmentService
 
     private final BrowserEnvironmentRepository browserEnvironmentRepository;
     private final UserRepository userRepository;
+    private final SessionStateStore sessionStateStore;
 
     @Override
     public List<BrowserEnvironment> getAllBrowserEnvironments(Long userId) {
@@ -106,6 +108,8 @@ public class BrowserEnvironmentServiceImpl implements BrowserEnvironmentService
         }
         
         browserEnvironmentRepository.delete(environment);
+        // 环境删除后不再保留其登录状态快照
+        sessionStateStore.invalidate(id);
     }
 
     @Override
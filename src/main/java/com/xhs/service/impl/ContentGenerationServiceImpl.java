@@ -2,19 +2,55 @@ package com.xhs.service.impl;
 
 import com.xhs.analysis.ContentAnalysis;
 import com.xhs.analysis.ContentAnalyzer;
+import com.xhs.analysis.TitleRanker;
+import com.xhs.dto.GenerationResult;
+import com.xhs.dto.TitleCandidate;
+import com.xhs.service.AIResponseCacheService;
 import com.xhs.service.AIService;
 import com.xhs.service.ContentGenerationService;
-import lombok.RequiredArgsConstructor;
+import com.xhs.utils.KeyedTaskExecutor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
 public class ContentGenerationServiceImpl implements ContentGenerationService {
 
+    // 候选标题的生成角度，每个候选使用不同角度，保证多样性（也使缓存键互不相同）
+    private static final List<String> TITLE_ANGLES = List.of(
+            "突出结果和收获",
+            "制造好奇心或悬念",
+            "使用数字或清单式表达",
+            "口语化、引起情绪共鸣",
+            "提问式，直击目标受众痛点"
+    );
+
     private final ContentAnalyzer contentAnalyzer;
     private final AIService aiService;
+    private final AIResponseCacheService responseCacheService;
+    private final TitleRanker titleRanker;
+
+    // 用于编排并行生成，AI调用本身仍在服务商并发上限内执行
+    private final KeyedTaskExecutor aiTaskExecutor;
+
+    public ContentGenerationServiceImpl(ContentAnalyzer contentAnalyzer,
+                                        AIService aiService,
+                                        AIResponseCacheService responseCacheService,
+                                        TitleRanker titleRanker,
+                                        @Qualifier("aiTaskExecutor") KeyedTaskExecutor aiTaskExecutor) {
+        this.contentAnalyzer = contentAnalyzer;
+        this.aiService = aiService;
+        this.responseCacheService = responseCacheService;
+        this.titleRanker = titleRanker;
+        this.aiTaskExecutor = aiTaskExecutor;
+    }
 
     @Override
     public ContentAnalysis analyzeContent(String text, String imageType) {
@@ -27,9 +63,36 @@ public class ContentGenerationServiceImpl implements ContentGenerationService {
     }
 
     @Override
-    public String generateXiaohongshuContent(String providerType, String apiKey, ContentAnalysis analysis, String originalText) throws Exception {
-        // 构建小红书文案生成提示词
-        String prompt = String.format("""
+    public GenerationResult generateXiaohongshuContent(String providerType, String apiKey, ContentAnalysis analysis, String originalText) throws Exception {
+        String prompt = buildXiaohongshuPrompt(analysis, originalText);
+        Map<String, Object> params = Map.of("temperature", 0.7);
+
+        // 使用AI生成小红书文案，相同输入直接返回缓存结果
+        return responseCacheService.getOrGenerate(providerType, apiKey, prompt, params,
+                () -> aiService.generateContent(providerType, apiKey, prompt, params));
+    }
+
+    @Override
+    public CompletableFuture<GenerationResult> generateXiaohongshuContentAsync(String providerType, String apiKey, ContentAnalysis analysis, String originalText) {
+        return aiTaskExecutor.submit(() -> generateXiaohongshuContent(providerType, apiKey, analysis, originalText));
+    }
+
+    @Override
+    public CompletableFuture<Void> streamXiaohongshuContent(String providerType, String apiKey, ContentAnalysis analysis, String originalText, Consumer<String> onChunk) {
+        String prompt = buildXiaohongshuPrompt(analysis, originalText);
+
+        // 使用AI流式生成小红书文案
+        return aiService.streamContent(providerType, apiKey, prompt, Map.of("temperature", 0.7), onChunk);
+    }
+
+    /**
+     * 构建小红书文案生成提示词
+     * @param analysis 内容分析结果
+     * @param originalText 原始文本
+     * @return 提示词
+     */
+    private String buildXiaohongshuPrompt(ContentAnalysis analysis, String originalText) {
+        return String.format("""
         请根据以下内容分析结果，将原始文本改写成适合小红书平台的文案：
         
         【分析结果】
@@ -61,13 +124,10 @@ public class ContentGenerationServiceImpl implements ContentGenerationService {
         analysis.getStylePreference(),
         originalText,
         analysis.getStylePreference());
-
-        // 使用AI生成小红书文案
-        return aiService.generateContent(providerType, apiKey, prompt, Map.of("temperature", 0.7));
     }
 
     @Override
-    public String generateTitle(String providerType, String apiKey, String content) throws Exception {
+    public GenerationResult generateTitle(String providerType, String apiKey, String content) throws Exception {
         // 构建标题生成提示词
         String prompt = String.format("""
         请为以下内容生成一个吸引人的小红书标题：
@@ -84,8 +144,120 @@ public class ContentGenerationServiceImpl implements ContentGenerationService {
         6. 有网感，符合年轻人的阅读习惯
         """, content);
 
-        // 使用AI生成标题
-        return aiService.generateContent(providerType, apiKey, prompt, Map.of("temperature", 0.8));
+        Map<String, Object> params = Map.of("temperature", 0.8);
+
+        // 使用AI生成标题，相同输入直接返回缓存结果
+        return responseCacheService.getOrGenerate(providerType, apiKey, prompt, params,
+                () -> aiService.generateContent(providerType, apiKey, prompt, params));
+    }
+
+    @Override
+    public CompletableFuture<List<TitleCandidate>> generateTitleCandidatesAsync(String providerType, String apiKey, ContentAnalysis analysis, String originalText, int count) {
+        int candidateCount = Math.max(1, Math.min(count, TITLE_ANGLES.size()));
+        Map<String, Object> params = Map.of("temperature", 0.8);
+
+        // 每个角度一个请求，同时发出
+        List<CompletableFuture<TitleCandidate>> futures = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            String angle = TITLE_ANGLES.get(i);
+            String prompt = buildTitleCandidatePrompt(analysis, originalText, angle);
+            futures.add(aiTaskExecutor.submit(() -> {
+                GenerationResult result = responseCacheService.getOrGenerate(providerType, apiKey, prompt, params,
+                        () -> aiService.generateContent(providerType, apiKey, prompt, params));
+                String title = titleRanker.clean(result.getContent());
+                return new TitleCandidate(title, angle, titleRanker.score(title, analysis), result.isCacheHit(), result.getCacheTier());
+            }));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new))
+                .handle((ignored, error) -> {
+                    // 部分候选失败时使用其余候选，全部失败才抛出异常
+                    Map<String, TitleCandidate> candidates = new LinkedHashMap<>();
+                    Throwable firstError = null;
+                    for (CompletableFuture<TitleCandidate> future : futures) {
+                        if (future.isCompletedExceptionally()) {
+                            if (firstError == null) {
+                                firstError = future.exceptionNow();
+                            }
+                            continue;
+                        }
+                        TitleCandidate candidate = future.join();
+                        if (!candidate.getTitle().isEmpty()) {
+                            candidates.putIfAbsent(candidate.getTitle(), candidate);
+                        }
+                    }
+                    if (candidates.isEmpty()) {
+                        throw new IllegalStateException("候选标题生成失败: "
+                                + (firstError != null ? firstError.getMessage() : "AI未返回有效标题"), firstError);
+                    }
+                    List<TitleCandidate> ranked = new ArrayList<>(candidates.values());
+                    ranked.sort(Comparator.comparingDouble(TitleCandidate::getScore).reversed());
+                    return ranked;
+                });
+    }
+
+    @Override
+    public GenerationResult refineTitle(String providerType, String apiKey, String title, String content) throws Exception {
+        String prompt = String.format("""
+        下面是一篇小红书笔记的正文和初拟标题，请结合正文微调标题，使标题与正文内容更贴合：
+        
+        【初拟标题】
+        %s
+        
+        【正文】
+        %s
+        
+        【要求】
+        1. 保留初拟标题的风格和亮点
+        2. 不超过20个字符，可适当添加表情符号
+        3. 只输出标题本身，不要任何解释
+        """, title, content);
+
+        Map<String, Object> params = Map.of("temperature", 0.5);
+        GenerationResult result = responseCacheService.getOrGenerate(providerType, apiKey, prompt, params,
+                () -> aiService.generateContent(providerType, apiKey, prompt, params));
+
+        // 微调结果无效时保留初拟标题
+        String refined = titleRanker.clean(result.getContent());
+        result.setContent(refined.isEmpty() ? title : refined);
+        return result;
+    }
+
+    /**
+     * 构建候选标题提示词（基于原始文本和分析结果，不等待文案生成）
+     * @param analysis 内容分析结果
+     * @param originalText 原始文本
+     * @param angle 生成角度
+     * @return 提示词
+     */
+    private String buildTitleCandidatePrompt(ContentAnalysis analysis, String originalText, String angle) {
+        return String.format("""
+        请根据以下内容分析结果和原始文本，为小红书笔记生成一个吸引人的标题：
+        
+        【分析结果】
+        主题：%s
+        关键词：%s
+        情感：%s
+        目标受众：%s
+        风格偏好：%s
+        
+        【原始文本】
+        %s
+        
+        【要求】
+        1. 标题角度：%s
+        2. 突出核心亮点，符合小红书平台风格
+        3. 适当添加表情符号
+        4. 长度适中，不超过20个字符
+        5. 只输出标题本身，不要任何解释
+        """,
+        String.join(", ", analysis.getTopics()),
+        String.join(", ", analysis.getKeywords()),
+        analysis.getSentiment(),
+        analysis.getTargetAudience(),
+        analysis.getStylePreference(),
+        originalText,
+        angle);
     }
 
     @Override
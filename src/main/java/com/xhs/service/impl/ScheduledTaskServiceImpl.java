@@ -1,21 +1,43 @@
 package com.xhs.service.impl;
 
+import com.xhs.dto.CursorPage;
+import com.xhs.dto.ScheduledTaskSummary;
+import com.xhs.entity.PublishHistory;
 import com.xhs.entity.ScheduledTask;
+import com.xhs.entity.ScheduledTaskOccurrence;
+import com.xhs.repository.PublishHistoryRepository;
+import com.xhs.repository.ScheduledTaskOccurrenceRepository;
 import com.xhs.repository.ScheduledTaskRepository;
+import com.xhs.scheduler.PublishQueue;
+import com.xhs.scheduler.QuartzTaskScheduler;
+import com.xhs.scheduler.RecurrenceMaterializer;
+import com.xhs.service.PublishOutcomeUnknownException;
 import com.xhs.service.PublishService;
 import com.xhs.service.ScheduledTaskService;
+import com.xhs.utils.RetryManager;
+import com.xhs.utils.RetryPolicy;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ScheduledTaskServiceImpl implements ScheduledTaskService {
@@ -23,12 +45,34 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskServiceImpl.class);
     private final ScheduledTaskRepository scheduledTaskRepository;
     private final PublishService publishService;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(10);
+    // 发布队列（按账号串行，控制发布间隔与全局并发）
+    private final PublishQueue publishQueue;
+    // Quartz触发器（集群内到点触发）
+    private final QuartzTaskScheduler quartzTaskScheduler;
+    // 重复任务时间点展开
+    private final RecurrenceMaterializer recurrenceMaterializer;
+    private final ScheduledTaskOccurrenceRepository occurrenceRepository;
+    // 发布失败重试
+    private final RetryManager retryManager;
+    private final RetryPolicy publishRetryPolicy;
+    // 用于核对中断任务的发布结果
+    private final PublishHistoryRepository publishHistoryRepository;
 
     // 构造函数
-    public ScheduledTaskServiceImpl(ScheduledTaskRepository scheduledTaskRepository, PublishService publishService) {
+    public ScheduledTaskServiceImpl(ScheduledTaskRepository scheduledTaskRepository, PublishService publishService,
+                                    PublishQueue publishQueue,
+                                    QuartzTaskScheduler quartzTaskScheduler, RecurrenceMaterializer recurrenceMaterializer,
+                                    ScheduledTaskOccurrenceRepository occurrenceRepository, RetryManager retryManager,
+                                    RetryPolicy publishRetryPolicy, PublishHistoryRepository publishHistoryRepository) {
         this.scheduledTaskRepository = Objects.requireNonNull(scheduledTaskRepository, "scheduledTaskRepository must not be null");
         this.publishService = Objects.requireNonNull(publishService, "publishService must not be null");
+        this.publishQueue = Objects.requireNonNull(publishQueue, "publishQueue must not be null");
+        this.quartzTaskScheduler = Objects.requireNonNull(quartzTaskScheduler, "quartzTaskScheduler must not be null");
+        this.recurrenceMaterializer = Objects.requireNonNull(recurrenceMaterializer, "recurrenceMaterializer must not be null");
+        this.occurrenceRepository = Objects.requireNonNull(occurrenceRepository, "occurrenceRepository must not be null");
+        this.retryManager = Objects.requireNonNull(retryManager, "retryManager must not be null");
+        this.publishRetryPolicy = Objects.requireNonNull(publishRetryPolicy, "publishRetryPolicy must not be null");
+        this.publishHistoryRepository = Objects.requireNonNull(publishHistoryRepository, "publishHistoryRepository must not be null");
     }
 
     // 任务状态常量
@@ -37,6 +81,46 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
     private static final String STATUS_COMPLETED = "COMPLETED";
     private static final String STATUS_FAILED = "FAILED";
     private static final String STATUS_PAUSED = "PAUSED";
+    // 死信：不可重试或重试耗尽的一次性任务，等待人工重放
+    private static final String STATUS_DEAD_LETTER = "DEAD_LETTER";
+
+    // 手动执行时允许领取的状态
+    private static final List<String> MANUAL_CLAIMABLE_STATUSES =
+            List.of(STATUS_PENDING, STATUS_COMPLETED, STATUS_FAILED, STATUS_PAUSED, STATUS_DEAD_LETTER);
+
+    @Value("${scheduler.node-id:}")
+    private String nodeId;
+
+    @Value("${scheduler.claim.lease-minutes:15}")
+    private long leaseMinutes;
+
+    @Value("${scheduler.claim.batch-size:20}")
+    private int claimBatchSize;
+
+    // 补偿扫描只领取逾期超过该时间仍未被触发的任务
+    @Value("${scheduler.claim.overdue-grace-seconds:120}")
+    private long overdueGraceSeconds;
+
+    // 账号发布队列已满时，任务退回待执行并推迟该时间后再次触发
+    @Value("${publish.queue.requeue-delay-seconds:300}")
+    private long requeueDelaySeconds;
+
+    // 本节点执行中的任务 → 领取凭证，用于续租
+    private final Map<Long, String> inFlightTasks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "unknown";
+            }
+            nodeId = host + "-" + ProcessHandle.current().pid();
+        }
+        logger.info("调度节点ID: {}", nodeId);
+    }
 
     @Override
     public List<ScheduledTask> getAllScheduledTasks() {
@@ -48,6 +132,13 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
         return scheduledTaskRepository.findByUserId(userId);
     }
 
+    @Override
+    public CursorPage<ScheduledTaskSummary> getTaskSummaries(Long userId, String status, Long cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<ScheduledTaskSummary> rows = scheduledTaskRepository.findSummaries(userId, status, cursor, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, ScheduledTaskSummary::getId);
+    }
+
     @Override
     public Optional<ScheduledTask> getScheduledTaskById(Long taskId) {
         return scheduledTaskRepository.findById(taskId);
@@ -60,9 +151,23 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
         if (task.getStatus() == null) {
             task.setStatus(STATUS_PENDING);
         }
+        if (RecurrenceMaterializer.isRecurring(task)) {
+            RecurrenceMaterializer.validate(task.getRecurrenceRule());
+        }
         task.setCreatedAt(LocalDateTime.now());
         task.setUpdatedAt(LocalDateTime.now());
-        return scheduledTaskRepository.save(task);
+        ScheduledTask savedTask = scheduledTaskRepository.save(task);
+        if (RecurrenceMaterializer.isRecurring(savedTask)) {
+            // 重复任务：scheduledTime为空或已过去时从当前时间开始展开
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime startTime = task.getScheduledTime() != null && task.getScheduledTime().isAfter(now)
+                    ? task.getScheduledTime() : now;
+            recurrenceMaterializer.topUp(savedTask, startTime);
+            savedTask.setScheduledTime(requireNextOccurrence(savedTask.getId(), startTime));
+            savedTask = scheduledTaskRepository.save(savedTask);
+        }
+        syncTrigger(savedTask);
+        return savedTask;
     }
 
     @Override
@@ -87,8 +192,41 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
         if (task.getImagePaths() != null) {
             existingTask.setImagePaths(task.getImagePaths());
         }
+
+        // 更新重复规则（传空字符串表示改为一次性任务）
+        boolean recurrenceChanged = false;
+        if (task.getRecurrenceRule() != null) {
+            if (task.getRecurrenceRule().isBlank()) {
+                existingTask.setRecurrenceRule(null);
+            } else {
+                RecurrenceMaterializer.validate(task.getRecurrenceRule());
+                existingTask.setRecurrenceRule(task.getRecurrenceRule());
+            }
+            recurrenceChanged = true;
+        }
+        if (task.getRecurrenceEndTime() != null) {
+            existingTask.setRecurrenceEndTime(task.getRecurrenceEndTime());
+            recurrenceChanged = true;
+        }
+        if (task.getPostingWindowStart() != null) {
+            existingTask.setPostingWindowStart(task.getPostingWindowStart());
+            recurrenceChanged = true;
+        }
+        if (task.getPostingWindowEnd() != null) {
+            existingTask.setPostingWindowEnd(task.getPostingWindowEnd());
+            recurrenceChanged = true;
+        }
+        if (recurrenceChanged) {
+            LocalDateTime now = LocalDateTime.now();
+            recurrenceMaterializer.rematerialize(existingTask, now);
+            if (RecurrenceMaterializer.isRecurring(existingTask)) {
+                existingTask.setScheduledTime(requireNextOccurrence(taskId, now));
+            }
+        }
         existingTask.setUpdatedAt(LocalDateTime.now());
-        return scheduledTaskRepository.save(existingTask);
+        ScheduledTask savedTask = scheduledTaskRepository.save(existingTask);
+        syncTrigger(savedTask);
+        return savedTask;
     }
 
     @Override
@@ -96,49 +234,78 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
     public void deleteScheduledTask(Long taskId) {
         ScheduledTask task = scheduledTaskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("定时任务不存在"));
+        recurrenceMaterializer.delete(taskId);
         scheduledTaskRepository.delete(task);
+        afterCommit(() -> quartzTaskScheduler.unschedule(taskId));
     }
 
     @Override
-    @Transactional
     public boolean executeTaskNow(Long taskId) {
-        Optional<ScheduledTask> optionalTask = scheduledTaskRepository.findById(taskId);
-        if (optionalTask.isEmpty()) {
+        if (!scheduledTaskRepository.existsById(taskId)) {
             logger.error("定时任务不存在, 任务ID: {}", taskId);
             return false;
         }
 
-        ScheduledTask task = optionalTask.get();
+        // 手动执行：除执行中以外的任务都可以领取
+        String token = claimToken();
+        int claimed = scheduledTaskRepository.claim(taskId, MANUAL_CLAIMABLE_STATUSES, STATUS_EXECUTING, nodeId, token,
+                leaseExpiresAt(), LocalDateTime.now());
+        if (claimed == 0) {
+            logger.warn("定时任务正在执行中, 任务ID: {}", taskId);
+            return false;
+        }
+        // 已手动执行，不再等待触发
+        quartzTaskScheduler.unschedule(taskId);
+        return runClaimedTask(taskId, token);
+    }
+
+    /**
+     * 执行已领取的任务
+     * @param taskId 任务ID
+     * @param token 领取凭证
+     * @return 是否已提交执行
+     */
+    private boolean runClaimedTask(Long taskId, String token) {
         try {
-            // 更新任务状态为执行中
-            task.setStatus(STATUS_EXECUTING);
-            task.setUpdatedAt(LocalDateTime.now());
-            scheduledTaskRepository.save(task);
+            ScheduledTask task = scheduledTaskRepository.findById(taskId)
+                    .orElseThrow(() -> new IllegalArgumentException("定时任务不存在"));
+            inFlightTasks.put(taskId, token);
 
-            // 异步执行任务
-            CompletableFuture.runAsync(() -> {
+            // 加入账号发布队列，按计划时间顺序串行执行
+            Long userId = task.getUser().getId();
+            boolean accepted = publishQueue.offer(userId, taskId, task.getScheduledTime(), () -> {
+                // 记录发布开始检查点；排队期间租约已被回收时放弃执行，避免重复发布
+                if (scheduledTaskRepository.markPublishStarted(taskId, token, LocalDateTime.now()) == 0) {
+                    inFlightTasks.remove(taskId, token);
+                    logger.warn("定时任务租约已失效, 放弃执行, 任务ID: {}", taskId);
+                    return;
+                }
                 try {
                     // 提取图片路径
                     String[] imagePaths = extractImagePaths(task.getImagePaths());
                     
-                    // 调用发布服务
-                    publishService.publishNote(task.getUser().getId(), task.getTitle(), task.getContent(), imagePaths);
+                    // 调用发布服务（发布失败时抛出异常，异常类型决定是否重试）
+                    publishService.publishNote(userId, taskId, task.getTitle(), task.getContent(), imagePaths);
                     
                     // 更新任务状态为完成
-                    updateTaskStatus(taskId, STATUS_COMPLETED);
+                    completeTask(taskId, token, STATUS_COMPLETED, null);
                     logger.info("定时任务执行成功, 任务ID: {}", taskId);
                 } catch (Exception e) {
-                    // 更新任务状态为失败
-                    updateTaskStatus(taskId, STATUS_FAILED);
                     logger.error("定时任务执行失败, 任务ID: {}: {}", taskId, e.getMessage(), e);
+                    // 按重试策略重新调度，或标记为失败/死信
+                    failTask(taskId, token, e);
                 }
-            }, executorService);
+            });
+            if (!accepted) {
+                requeueTask(taskId, token, task.getScheduledTime());
+                return false;
+            }
 
             return true;
         } catch (Exception e) {
             logger.error("执行定时任务失败, 任务ID: {}: {}", taskId, e.getMessage(), e);
             // 更新任务状态为失败
-            updateTaskStatus(taskId, STATUS_FAILED);
+            completeTask(taskId, token, STATUS_FAILED, truncateError(e.getMessage()));
             return false;
         }
     }
@@ -150,7 +317,7 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
                 .orElseThrow(() -> new IllegalArgumentException("定时任务不存在"));
         task.setStatus(STATUS_PAUSED);
         task.setUpdatedAt(LocalDateTime.now());
-        scheduledTaskRepository.save(task);
+        syncTrigger(scheduledTaskRepository.save(task));
     }
 
     @Override
@@ -159,8 +326,20 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
         ScheduledTask task = scheduledTaskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("定时任务不存在"));
         task.setStatus(STATUS_PENDING);
+        if (RecurrenceMaterializer.isRecurring(task)) {
+            // 暂停期间错过的时间点不再补发，从下一个时间点继续
+            LocalDateTime now = LocalDateTime.now();
+            recurrenceMaterializer.skipMissed(taskId, now);
+            recurrenceMaterializer.topUp(task, now);
+            LocalDateTime next = recurrenceMaterializer.nextOccurrence(taskId, now);
+            if (next != null) {
+                task.setScheduledTime(next);
+            } else {
+                task.setStatus(STATUS_COMPLETED);
+            }
+        }
         task.setUpdatedAt(LocalDateTime.now());
-        scheduledTaskRepository.save(task);
+        syncTrigger(scheduledTaskRepository.save(task));
     }
 
     @Override
@@ -178,21 +357,178 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
         return scheduledTaskRepository.findByScheduledTimeBetween(startTime, endTime);
     }
 
+    @Override
+    public List<ScheduledTaskOccurrence> getTaskOccurrences(Long taskId) {
+        return occurrenceRepository.findByTaskIdOrderByOccurrenceTime(taskId);
+    }
+
+    @Override
+    public List<ScheduledTaskOccurrence> getOccurrencesBetweenTimes(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (userId == null) {
+            return occurrenceRepository.findByOccurrenceTimeBetweenOrderByOccurrenceTime(startTime, endTime);
+        }
+        return occurrenceRepository.findByUserIdAndOccurrenceTimeBetweenOrderByOccurrenceTime(userId, startTime, endTime);
+    }
+
+    @Override
+    public boolean replayTask(Long taskId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (scheduledTaskRepository.replay(taskId, STATUS_DEAD_LETTER, STATUS_PENDING, now) == 0) {
+            return false;
+        }
+        // 计划时间已过，触发器创建后立即触发
+        quartzTaskScheduler.schedule(taskId, now);
+        logger.info("重放死信任务, 任务ID: {}", taskId);
+        return true;
+    }
+
+    @Override
+    public int replayDeadLetterTasks(Long userId) {
+        List<ScheduledTask> tasks = userId == null
+                ? scheduledTaskRepository.findByStatus(STATUS_DEAD_LETTER)
+                : scheduledTaskRepository.findByUserIdAndStatus(userId, STATUS_DEAD_LETTER);
+        int replayed = 0;
+        for (ScheduledTask task : tasks) {
+            if (replayTask(task.getId())) {
+                replayed++;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * 执行失败后按重试策略处理：可重试时释放领取并通过触发器在退避时间后重新派发（不阻塞线程），
+     * 否则重复任务记为本次失败并继续下一个时间点，一次性任务进入死信
+     * @param taskId 任务ID
+     * @param token 领取凭证
+     * @param error 失败原因
+     */
+    private void failTask(Long taskId, String token, Exception error) {
+        String lastError = truncateError(error.getMessage());
+        ScheduledTask task = scheduledTaskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            completeTask(taskId, token, STATUS_FAILED, lastError);
+            return;
+        }
+
+        int attempt = (task.getRetryCount() != null ? task.getRetryCount() : 0) + 1;
+        RetryManager.RetryDecision decision = retryManager.decide(publishRetryPolicy, error, attempt);
+        if (decision.retry()) {
+            inFlightTasks.remove(taskId, token);
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime retryTime = now.plus(decision.delay());
+            if (scheduledTaskRepository.scheduleRetry(taskId, token, STATUS_PENDING, attempt, retryTime, lastError, now) == 0) {
+                logger.warn("定时任务租约已失效, 未安排重试, 任务ID: {}", taskId);
+                return;
+            }
+            quartzTaskScheduler.schedule(taskId, retryTime);
+            logger.info("定时任务将在 {} 重试, 任务ID: {}, 第 {}/{} 次尝试", retryTime, taskId, attempt + 1,
+                    publishRetryPolicy.getMaxAttempts());
+            return;
+        }
+
+        logger.warn("定时任务不再重试, 任务ID: {}, 原因: {}", taskId, decision.reason());
+        String status = RecurrenceMaterializer.isRecurring(task) ? STATUS_FAILED : STATUS_DEAD_LETTER;
+        completeTask(taskId, token, status, truncateError(decision.reason() + ": " + error.getMessage()));
+    }
+
     /**
-     * 更新任务状态
+     * 写入执行结果并释放领取
      * @param taskId 任务ID
+     * @param token 领取凭证
      * @param status 新状态
+     * @param lastError 错误信息，成功时为null
      */
-    @Transactional
-    private void updateTaskStatus(Long taskId, String status) {
-        ScheduledTask task = scheduledTaskRepository.findById(taskId)
-                .orElseThrow(() -> new IllegalArgumentException("定时任务不存在"));
-        task.setStatus(status);
-        task.setUpdatedAt(LocalDateTime.now());
-        if (STATUS_COMPLETED.equals(status)) {
-            task.setExecutedTime(LocalDateTime.now());
+    private void completeTask(Long taskId, String token, String status, String lastError) {
+        inFlightTasks.remove(taskId, token);
+        quartzTaskScheduler.unschedule(taskId);
+        LocalDateTime now = LocalDateTime.now();
+        int updated = scheduledTaskRepository.completeClaim(taskId, token, status,
+                STATUS_COMPLETED.equals(status) ? now : null, lastError, now);
+        if (updated == 0) {
+            logger.warn("定时任务租约已失效, 结果未写回, 任务ID: {}, 状态: {}", taskId, status);
+            return;
+        }
+        advanceRecurrence(taskId, status, now);
+    }
+
+    /**
+     * 发布队列已满时释放领取，任务退回待执行，推迟一段时间后由触发器再次派发
+     * @param taskId 任务ID
+     * @param token 领取凭证
+     * @param scheduledTime 原计划执行时间
+     */
+    private void requeueTask(Long taskId, String token, LocalDateTime scheduledTime) {
+        LocalDateTime retryTime = LocalDateTime.now().plusSeconds(requeueDelaySeconds);
+        if (releaseClaim(taskId, token, scheduledTime != null && scheduledTime.isAfter(retryTime) ? scheduledTime : retryTime)) {
+            logger.warn("账号发布队列已满, 任务退回待执行, 任务ID: {}, {}秒后重试", taskId, requeueDelaySeconds);
         }
-        scheduledTaskRepository.save(task);
+    }
+
+    /**
+     * 释放领取，任务退回待执行并在指定时间重新触发
+     * @param taskId 任务ID
+     * @param token 领取凭证
+     * @param triggerTime 重新触发时间
+     * @return 是否已释放（凭证不匹配时返回false）
+     */
+    private boolean releaseClaim(Long taskId, String token, LocalDateTime triggerTime) {
+        inFlightTasks.remove(taskId, token);
+        if (scheduledTaskRepository.completeClaim(taskId, token, STATUS_PENDING, null, null, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        quartzTaskScheduler.schedule(taskId, triggerTime);
+        return true;
+    }
+
+    /**
+     * 重复任务执行完成后记录本次时间点的结果，补齐时间点并重新置为待执行，指向下一个时间点
+     * @param taskId 任务ID
+     * @param status 本次执行结果
+     * @param now 当前时间
+     */
+    private void advanceRecurrence(Long taskId, String status, LocalDateTime now) {
+        ScheduledTask task = scheduledTaskRepository.findById(taskId).orElse(null);
+        if (task == null || !RecurrenceMaterializer.isRecurring(task)) {
+            return;
+        }
+        // 提前手动执行不消耗计划中的时间点
+        if (task.getScheduledTime() != null && !task.getScheduledTime().isAfter(now)) {
+            recurrenceMaterializer.complete(taskId, task.getScheduledTime(), status, STATUS_COMPLETED.equals(status) ? now : null);
+        }
+        recurrenceMaterializer.skipMissed(taskId, now);
+        recurrenceMaterializer.topUp(task, now);
+
+        LocalDateTime next = recurrenceMaterializer.nextOccurrence(taskId, now);
+        if (next == null) {
+            logger.info("重复任务已无后续执行时间, 任务ID: {}", taskId);
+            return;
+        }
+        if (scheduledTaskRepository.rearm(taskId, status, STATUS_PENDING, next, now) > 0) {
+            quartzTaskScheduler.schedule(taskId, next);
+        }
+    }
+
+    /**
+     * 获取重复任务的下一个时间点
+     * @param taskId 任务ID
+     * @param after 该时间之后
+     * @return 时间点
+     * @throws IllegalArgumentException 截止时间或发布时间窗口内没有可执行的时间点时抛出
+     */
+    private LocalDateTime requireNextOccurrence(Long taskId, LocalDateTime after) {
+        LocalDateTime next = recurrenceMaterializer.nextOccurrence(taskId, after);
+        if (next == null) {
+            throw new IllegalArgumentException("重复规则在截止时间和发布时间窗口内没有可执行的时间点");
+        }
+        return next;
+    }
+
+    private static String truncateError(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
     }
 
     /**
@@ -217,17 +553,291 @@ public class ScheduledTaskServiceImpl implements ScheduledTaskService {
     }
 
     /**
-     * 检查并执行到期的定时任务
-     * 由定时调度器调用
+     * 为缺少触发器的待执行/已暂停任务补建触发器（启动时调用，兼容迁移前创建的任务）
+     * @return 补建的触发器数
      */
-    @Transactional
-    public void checkAndExecuteDueTasks() {
+    public int syncTriggers() {
+        int created = 0;
+        for (ScheduledTask task : scheduledTaskRepository.findByStatus(STATUS_PENDING)) {
+            if (!quartzTaskScheduler.isScheduled(task.getId()) && quartzTaskScheduler.schedule(task.getId(), dueTime(task))) {
+                created++;
+            }
+        }
+        for (ScheduledTask task : scheduledTaskRepository.findByStatus(STATUS_PAUSED)) {
+            if (!quartzTaskScheduler.isScheduled(task.getId()) && quartzTaskScheduler.schedule(task.getId(), dueTime(task))) {
+                quartzTaskScheduler.pause(task.getId());
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 派发到期任务，由Quartz作业 {@link com.xhs.scheduler.PublishTaskJob} 在任务触发器到点时调用
+     * 触发器只在一个节点触发，重复触发（如错过后补触发）时只有原子领取成功的节点会执行
+     * @param taskId 任务ID
+     */
+    public void dispatchDueTask(Long taskId) {
+        Optional<ScheduledTask> optionalTask = scheduledTaskRepository.findById(taskId);
+        if (optionalTask.isEmpty() || !STATUS_PENDING.equals(optionalTask.get().getStatus())) {
+            return;
+        }
+
+        ScheduledTask task = optionalTask.get();
+        // 执行时间已被推迟（触发器尚未更新时被触发）或仍在等待重试，按新时间重新调度
+        LocalDateTime dueTime = dueTime(task);
+        if (dueTime != null && dueTime.isAfter(LocalDateTime.now().plusSeconds(1))) {
+            quartzTaskScheduler.schedule(taskId, dueTime);
+            return;
+        }
+
+        String token = claimToken();
+        int claimed = scheduledTaskRepository.claim(taskId, List.of(STATUS_PENDING), STATUS_EXECUTING, nodeId, token,
+                leaseExpiresAt(), LocalDateTime.now());
+        if (claimed == 0) {
+            logger.debug("定时任务已被其他节点领取, 任务ID: {}", taskId);
+            return;
+        }
+
+        logger.info("执行到期定时任务, 任务ID: {}, 标题: {}", task.getId(), task.getTitle());
+        runClaimedTask(taskId, token);
+    }
+
+    /**
+     * 批量领取并执行逾期未触发的待执行任务（补偿扫描时调用，正常情况下任务由Quartz按时触发）
+     * @return 本节点领取的任务数
+     */
+    public int claimDueTasks() {
         LocalDateTime now = LocalDateTime.now();
-        List<ScheduledTask> dueTasks = scheduledTaskRepository.findByStatusAndScheduledTimeLessThanEqual(STATUS_PENDING, now);
-        
-        for (ScheduledTask task : dueTasks) {
+        List<Long> dueTaskIds = scheduledTaskRepository.findDueTaskIds(STATUS_PENDING, now.minusSeconds(overdueGraceSeconds),
+                PageRequest.of(0, claimBatchSize));
+        if (dueTaskIds.isEmpty()) {
+            return 0;
+        }
+
+        String token = claimToken();
+        int claimed = scheduledTaskRepository.claimBatch(dueTaskIds, STATUS_PENDING, STATUS_EXECUTING, nodeId, token,
+                leaseExpiresAt(), now);
+        if (claimed == 0) {
+            return 0;
+        }
+
+        List<ScheduledTask> claimedTasks = scheduledTaskRepository.findByClaimToken(token);
+        for (ScheduledTask task : claimedTasks) {
+            quartzTaskScheduler.unschedule(task.getId());
             logger.info("执行到期定时任务, 任务ID: {}, 标题: {}", task.getId(), task.getTitle());
-            executeTaskNow(task.getId());
+            runClaimedTask(task.getId(), token);
+        }
+        return claimedTasks.size();
+    }
+
+    /**
+     * 为本节点执行中的任务续租
+     */
+    public void renewLeases() {
+        if (inFlightTasks.isEmpty()) {
+            return;
+        }
+        Map<String, List<Long>> tasksByToken = new HashMap<>();
+        inFlightTasks.forEach((taskId, token) -> tasksByToken.computeIfAbsent(token, k -> new ArrayList<>()).add(taskId));
+
+        LocalDateTime leaseExpiresAt = leaseExpiresAt();
+        tasksByToken.forEach((token, taskIds) ->
+                scheduledTaskRepository.renewLease(taskIds, token, STATUS_EXECUTING, leaseExpiresAt));
+    }
+
+    /**
+     * 回收租约过期的执行中任务（所在节点宕机或失联），按发布记录核对结果后完成或重新执行
+     * @return 回收的任务数
+     */
+    public int recoverExpiredLeases() {
+        LocalDateTime now = LocalDateTime.now();
+        int recovered = 0;
+        for (ScheduledTask task : scheduledTaskRepository.findExpiredLeaseTasks(STATUS_EXECUTING, now, now.minus(leaseDuration()))) {
+            // 本节点仍在执行的任务（续租暂时失败）不回收
+            if (task.getClaimToken() != null && task.getClaimToken().equals(inFlightTasks.get(task.getId()))) {
+                continue;
+            }
+            if (reconcileOrphanedTask(task)) {
+                recovered++;
+            }
+        }
+        if (recovered > 0) {
+            logger.warn("回收租约过期的执行中任务 {} 个", recovered);
+        }
+        return recovered;
+    }
+
+    /**
+     * 启动时核对上一次运行遗留的执行中任务：本节点（固定节点ID时）领取的任务立即核对，其余按租约回收
+     * @return 核对的任务数
+     */
+    public int reconcileOnStartup() {
+        int reconciled = 0;
+        for (ScheduledTask task : scheduledTaskRepository.findByStatusAndClaimedBy(STATUS_EXECUTING, nodeId)) {
+            if (!inFlightTasks.containsKey(task.getId()) && reconcileOrphanedTask(task)) {
+                reconciled++;
+            }
+        }
+        return reconciled + recoverExpiredLeases();
+    }
+
+    /**
+     * 核对中断的执行中任务：未开始发布 → 重新执行；已有成功/失败的发布记录 → 按结果完成或走重试策略；
+     * 发布记录仍在进行中且中断在提交之前，或没有发布记录 → 结束残留记录后重新执行；
+     * 中断在提交或确认阶段 → 笔记可能已发出，重新执行可能重复发布，进入死信等待人工确认
+     * @param task 执行中任务
+     * @return 是否已处理
+     */
+    private boolean reconcileOrphanedTask(ScheduledTask task) {
+        Long taskId = task.getId();
+        LocalDateTime now = LocalDateTime.now();
+        String token = task.getClaimToken();
+        if (token == null) {
+            // 迁移前领取的任务没有凭证，先重新领取
+            token = claimToken();
+            if (scheduledTaskRepository.claim(taskId, List.of(STATUS_EXECUTING), STATUS_EXECUTING, nodeId, token,
+                    leaseExpiresAt(), now) == 0) {
+                return false;
+            }
+        }
+
+        if (task.getPublishStartedAt() == null) {
+            logger.info("中断的任务尚未开始发布, 重新执行, 任务ID: {}", taskId);
+            return releaseClaim(taskId, token, now);
+        }
+
+        Optional<PublishHistory> history = publishHistoryRepository.findFirstByTaskIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
+                taskId, task.getPublishStartedAt().minusSeconds(1));
+        if (history.isPresent() && "SUCCESS".equals(history.get().getStatus())) {
+            logger.info("中断的任务已发布成功, 任务ID: {}, 发布记录ID: {}", taskId, history.get().getId());
+            completeTask(taskId, token, STATUS_COMPLETED, null);
+            return true;
+        }
+        if (history.isPresent() && "FAILED".equals(history.get().getStatus())) {
+            logger.info("中断的任务发布失败, 按重试策略处理, 任务ID: {}, 发布记录ID: {}", taskId, history.get().getId());
+            // 失败在提交或确认阶段时无法区分是否已发出，按结果未知处理，不自动重试
+            String errorMessage = history.get().getErrorMessage();
+            failTask(taskId, token, PublishService.reachedSubmit(history.get().getStage())
+                    ? new PublishOutcomeUnknownException(errorMessage != null ? errorMessage : "无法确认发布状态")
+                    : new RuntimeException(errorMessage));
+            return true;
+        }
+        if (history.isPresent() && PublishService.reachedSubmit(history.get().getStage())) {
+            // 已点击或可能已点击发布，结果未知，不自动重新执行
+            PublishHistory interrupted = history.get();
+            String error = "发布中断, 阶段: " + interrupted.getStage() + ", 无法确认发布状态, 需人工确认";
+            publishService.markInterrupted(interrupted.getId(), error);
+            logger.warn("中断的任务发布进行到 {} 阶段, 无法确认发布状态, 转入死信, 任务ID: {}, 发布记录ID: {}",
+                    interrupted.getStage(), taskId, interrupted.getId());
+            completeTask(taskId, token, STATUS_DEAD_LETTER, error);
+            return true;
+        }
+        if (history.isPresent()) {
+            // 提交前中断：结束残留的进行中记录，重新执行时生成新的发布记录
+            PublishHistory interrupted = history.get();
+            publishService.markInterrupted(interrupted.getId(), "发布中断, 阶段: " + interrupted.getStage());
+            logger.warn("中断的任务发布进行到 {} 阶段, 结果未知, 重新执行, 任务ID: {}, 发布记录ID: {}",
+                    interrupted.getStage(), taskId, interrupted.getId());
+            return releaseClaim(taskId, token, now);
+        }
+        logger.warn("中断的任务没有完整的发布记录, 重新执行, 任务ID: {}", taskId);
+        return releaseClaim(taskId, token, now);
+    }
+
+    /**
+     * 关闭时释放已领取但仍在发布队列中排队的任务，由其他节点立即接手
+     * @param taskIds 任务ID
+     * @return 释放的任务数
+     */
+    public int releaseQueuedTasks(List<Long> taskIds) {
+        int released = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (Long taskId : taskIds) {
+            String token = inFlightTasks.get(taskId);
+            if (token != null && releaseClaim(taskId, token, now)) {
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /**
+     * 关闭超时后将本节点仍在执行的任务租约置为立即过期，其他节点的补偿扫描会按发布记录核对，无需等待租约到期
+     * @return 涉及的任务数
+     */
+    public int expireInFlightLeases() {
+        Map<String, List<Long>> tasksByToken = new HashMap<>();
+        inFlightTasks.forEach((taskId, token) -> tasksByToken.computeIfAbsent(token, k -> new ArrayList<>()).add(taskId));
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (Map.Entry<String, List<Long>> entry : tasksByToken.entrySet()) {
+            expired += scheduledTaskRepository.renewLease(entry.getValue(), entry.getKey(), STATUS_EXECUTING, now);
+        }
+        return expired;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 任务实际到期时间：等待重试时为重试时间，否则为计划执行时间
+     */
+    private static LocalDateTime dueTime(ScheduledTask task) {
+        LocalDateTime scheduledTime = task.getScheduledTime();
+        LocalDateTime nextRetryTime = task.getNextRetryTime();
+        if (nextRetryTime == null) {
+            return scheduledTime;
+        }
+        return scheduledTime == null || nextRetryTime.isAfter(scheduledTime) ? nextRetryTime : scheduledTime;
+    }
+
+    private String claimToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    private Duration leaseDuration() {
+        return Duration.ofMinutes(leaseMinutes);
+    }
+
+    private LocalDateTime leaseExpiresAt() {
+        return LocalDateTime.now().plus(leaseDuration());
+    }
+
+    /**
+     * 按任务当前状态更新Quartz触发器：待执行 → 创建/更新触发器，已暂停 → 暂停触发器，已完成/失败/死信 → 删除
+     * @param task 定时任务
+     */
+    private void syncTrigger(ScheduledTask task) {
+        Long taskId = task.getId();
+        String status = task.getStatus();
+        LocalDateTime scheduledTime = dueTime(task);
+        afterCommit(() -> {
+            if (STATUS_PENDING.equals(status)) {
+                quartzTaskScheduler.schedule(taskId, scheduledTime);
+            } else if (STATUS_PAUSED.equals(status)) {
+                quartzTaskScheduler.pause(taskId);
+            } else if (STATUS_COMPLETED.equals(status) || STATUS_FAILED.equals(status) || STATUS_DEAD_LETTER.equals(status)) {
+                quartzTaskScheduler.unschedule(taskId);
+            }
+        });
+    }
+
+    /**
+     * 在事务提交后执行（Quartz使用独立的数据源，避免触发时读不到未提交的数据）；不在事务中时立即执行
+     * @param action 操作
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 
@@ -0,0 +1,155 @@
+package com.xhs.service.impl;
+
+import com.xhs.dto.DailyPublishStat;
+import com.xhs.dto.UserPublishStat;
+import com.xhs.entity.PublishDailyStat;
+import com.xhs.repository.PublishDailyStatRepository;
+import com.xhs.repository.PublishHistoryRepository;
+import com.xhs.repository.ScheduledTaskRepository;
+import com.xhs.repository.UserRepository;
+import com.xhs.service.StatsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+public class StatsServiceImpl implements StatsService {
+
+    // 最多查询的天数
+    private static final int MAX_DAYS = 366;
+
+    private final UserRepository userRepository;
+    private final ScheduledTaskRepository scheduledTaskRepository;
+    private final PublishHistoryRepository publishHistoryRepository;
+    private final PublishDailyStatRepository publishDailyStatRepository;
+
+    // 缓存键 → 缓存结果；结果在汇总刷新后失效
+    private final Map<String, CachedValue> cache = new ConcurrentHashMap<>();
+
+    // 统计结果的缓存时间
+    @Value("${stats.cache-ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    private record CachedValue(Object value, long expiresAtNanos) {
+    }
+
+    // 构造函数
+    public StatsServiceImpl(UserRepository userRepository,
+                            ScheduledTaskRepository scheduledTaskRepository,
+                            PublishHistoryRepository publishHistoryRepository,
+                            PublishDailyStatRepository publishDailyStatRepository) {
+        this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
+        this.scheduledTaskRepository = Objects.requireNonNull(scheduledTaskRepository, "scheduledTaskRepository must not be null");
+        this.publishHistoryRepository = Objects.requireNonNull(publishHistoryRepository, "publishHistoryRepository must not be null");
+        this.publishDailyStatRepository = Objects.requireNonNull(publishDailyStatRepository, "publishDailyStatRepository must not be null");
+    }
+
+    @Override
+    public Map<String, Object> getHomeStats() {
+        return cached("home", () -> {
+            LocalDateTime todayStart = LocalDate.now().atStartOfDay();
+            long success = 0;
+            long failed = 0;
+            for (UserPublishStat userStat : getUserPublishStats()) {
+                success += userStat.getSuccessCount();
+                failed += userStat.getFailedCount();
+            }
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("totalUsers", userRepository.count());
+            stats.put("activeUsers", userRepository.countByIsActiveTrue());
+            stats.put("totalTasks", scheduledTaskRepository.count());
+            stats.put("totalPublished", publishHistoryRepository.count());
+            stats.put("todayPublished", publishHistoryRepository.countByCreatedAtBetween(todayStart, todayStart.plusDays(1)));
+            stats.put("successRate", UserPublishStat.successRate(success, failed));
+            return stats;
+        });
+    }
+
+    @Override
+    public List<DailyPublishStat> getDailyPublishStats(int days) {
+        int normalized = Math.min(Math.max(days, 1), MAX_DAYS);
+        return cached("daily:" + normalized, () -> {
+            LocalDate since = LocalDate.now().minusDays(normalized - 1L);
+            Map<LocalDate, DailyPublishStat> byDate = publishDailyStatRepository.sumByDate(since).stream()
+                    .collect(Collectors.toMap(DailyPublishStat::getDate, Function.identity()));
+            List<DailyPublishStat> result = new ArrayList<>(normalized);
+            for (LocalDate date = since; !date.isAfter(LocalDate.now()); date = date.plusDays(1)) {
+                result.add(byDate.getOrDefault(date, new DailyPublishStat(date, 0L, 0L, 0L)));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<UserPublishStat> getUserPublishStats() {
+        return cached("users", publishDailyStatRepository::sumByUser);
+    }
+
+    @Override
+    @Transactional
+    public int refreshRollup(LocalDate from, LocalDate to) {
+        int written = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            LocalDateTime start = date.atStartOfDay();
+            List<Object[]> rows = publishHistoryRepository.countByUserBetween(start, start.plusDays(1));
+            publishDailyStatRepository.deleteByStatDate(date);
+            List<PublishDailyStat> stats = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                PublishDailyStat stat = new PublishDailyStat();
+                stat.setStatDate(date);
+                stat.setUserId((Long) row[0]);
+                stat.setTotalCount(toInt(row[1]));
+                stat.setSuccessCount(toInt(row[2]));
+                stat.setFailedCount(toInt(row[3]));
+                stats.add(stat);
+            }
+            publishDailyStatRepository.saveAll(stats);
+            written += stats.size();
+        }
+        cache.clear();
+        return written;
+    }
+
+    @Override
+    public boolean isRollupEmpty() {
+        return publishDailyStatRepository.count() == 0;
+    }
+
+    @Override
+    public LocalDate getFirstPublishDate() {
+        LocalDateTime first = publishHistoryRepository.findFirstCreatedAt();
+        return first != null ? first.toLocalDate() : null;
+    }
+
+    /**
+     * 读取缓存，过期或不存在时重新计算
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, Supplier<T> loader) {
+        long now = System.nanoTime();
+        CachedValue entry = cache.get(key);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            return (T) entry.value();
+        }
+        T value = loader.get();
+        cache.put(key, new CachedValue(value, now + cacheTtlSeconds * 1_000_000_000L));
+        return value;
+    }
+
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+}
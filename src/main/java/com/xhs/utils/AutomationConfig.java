@@ -0,0 +1,123 @@
+package com.xhs.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 浏览器自动化配置
+ * 从 config/config.json 加载等待超时时间和发布流程中用于判断上传、发布结果的网络请求特征，缺省时使用默认值
+ */
+@Component
+public class AutomationConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AutomationConfig.class);
+    private static final String CONFIG_PATH = "config/config.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 通用等待超时（如等待用户输入验证码完成登录）
+    private int timeoutSec = 30;
+    // 图片上传超时
+    private int uploadTimeoutSec = 60;
+    // 发布结果检查间隔
+    private int publishCheckIntervalMs = 2000;
+    // 发布结果最长等待时间
+    private int maxPublishWaitSec = 30;
+    // 图片上传请求的URL特征（图片上传域名），每张图片对应一个上传请求
+    private List<String> uploadUrlPatterns = List.of("ros-upload.xiaohongshu.com");
+    // 发布笔记接口的URL特征
+    private List<String> publishResponsePatterns = List.of("/web_api/sns/v2/note");
+    // 发布接口响应中笔记ID所在的字段（JSON Pointer），按顺序取第一个非空值
+    private List<String> noteIdFields = List.of("/data/id", "/data/note_id", "/data/noteId");
+    // 发布成功后跳转页面的URL特征
+    private List<String> successUrlPatterns = List.of("/manage", "/home");
+
+    @PostConstruct
+    public void init() {
+        loadConfig();
+    }
+
+    /**
+     * 加载配置
+     */
+    public void loadConfig() {
+        try {
+            File configFile = new File(CONFIG_PATH);
+            if (!configFile.exists()) {
+                logger.warn("自动化配置文件不存在: {}, 使用默认值", CONFIG_PATH);
+                return;
+            }
+
+            JsonNode config = objectMapper.readTree(configFile);
+            timeoutSec = config.path("timeout").asInt(timeoutSec);
+            JsonNode publishing = config.path("publishing");
+            uploadTimeoutSec = publishing.path("uploadTimeoutSec").asInt(uploadTimeoutSec);
+            publishCheckIntervalMs = publishing.path("publishCheckIntervalMs").asInt(publishCheckIntervalMs);
+            maxPublishWaitSec = publishing.path("maxPublishWaitSec").asInt(maxPublishWaitSec);
+            uploadUrlPatterns = stringList(publishing.path("uploadUrlPatterns"), uploadUrlPatterns);
+            publishResponsePatterns = stringList(publishing.path("publishResponsePatterns"), publishResponsePatterns);
+            noteIdFields = stringList(publishing.path("noteIdFields"), noteIdFields);
+            successUrlPatterns = stringList(publishing.path("successUrlPatterns"), successUrlPatterns);
+            logger.info("自动化配置加载成功, 上传超时: {}秒, 发布等待: {}秒", uploadTimeoutSec, maxPublishWaitSec);
+
+        } catch (IOException e) {
+            logger.error("加载自动化配置失败, 使用默认值", e);
+        }
+    }
+
+    private static List<String> stringList(JsonNode node, List<String> defaults) {
+        if (!node.isArray()) {
+            return defaults;
+        }
+        List<String> values = new ArrayList<>();
+        node.forEach(value -> values.add(value.asText()));
+        return List.copyOf(values);
+    }
+
+    /**
+     * URL是否包含任一特征
+     */
+    public static boolean matches(String url, List<String> patterns) {
+        return url != null && patterns.stream().anyMatch(url::contains);
+    }
+
+    public double getTimeoutMs() {
+        return timeoutSec * 1000.0;
+    }
+
+    public double getUploadTimeoutMs() {
+        return uploadTimeoutSec * 1000.0;
+    }
+
+    public int getPublishCheckIntervalMs() {
+        return publishCheckIntervalMs;
+    }
+
+    public int getMaxPublishWaitMs() {
+        return maxPublishWaitSec * 1000;
+    }
+
+    public List<String> getUploadUrlPatterns() {
+        return uploadUrlPatterns;
+    }
+
+    public List<String> getPublishResponsePatterns() {
+        return publishResponsePatterns;
+    }
+
+    public List<String> getNoteIdFields() {
+        return noteIdFields;
+    }
+
+    public List<String> getSuccessUrlPatterns() {
+        return successUrlPatterns;
+    }
+}
@@ -0,0 +1,152 @@
+package com.xhs.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 批量生成主题文件解析
+ * 支持CSV（取 topic/text 列，无表头时取第一列）与JSONL（每行一个字符串或含 topic/text 字段的对象）
+ */
+public final class BatchTopicReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Set<String> TOPIC_COLUMNS = Set.of("topic", "text", "originaltext", "content");
+
+    private BatchTopicReader() {
+    }
+
+    /**
+     * 根据文件名解析主题列表
+     * @param filename 文件名，.jsonl/.ndjson 按JSONL解析，其余按CSV解析
+     * @param text 文件内容
+     * @return 主题列表（已去除空行）
+     */
+    public static List<String> read(String filename, String text) throws IOException {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return readJsonLines(text);
+        }
+        return readCsv(text);
+    }
+
+    /**
+     * 解析JSONL
+     */
+    public static List<String> readJsonLines(String text) throws IOException {
+        List<String> topics = new ArrayList<>();
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = OBJECT_MAPPER.readTree(line);
+            } catch (JsonProcessingException e) {
+                throw new IOException("第" + (i + 1) + "行不是合法的JSON: " + e.getOriginalMessage(), e);
+            }
+            String topic = null;
+            if (node.isTextual()) {
+                topic = node.asText();
+            } else if (node.isObject()) {
+                for (String field : List.of("topic", "text", "originalText", "content")) {
+                    if (node.hasNonNull(field)) {
+                        topic = node.get(field).asText();
+                        break;
+                    }
+                }
+            }
+            if (topic == null) {
+                throw new IOException("第" + (i + 1) + "行缺少 topic/text 字段");
+            }
+            if (!topic.isBlank()) {
+                topics.add(topic.trim());
+            }
+        }
+        return topics;
+    }
+
+    /**
+     * 解析CSV（RFC 4180：支持双引号包裹、字段内逗号与换行、"" 转义）
+     */
+    public static List<String> readCsv(String text) {
+        List<List<String>> rows = parseCsvRows(text);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        int column = 0;
+        int start = 0;
+        List<String> header = rows.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            if (TOPIC_COLUMNS.contains(header.get(i).trim().toLowerCase(Locale.ROOT))) {
+                column = i;
+                start = 1;
+                break;
+            }
+        }
+
+        List<String> topics = new ArrayList<>();
+        for (int i = start; i < rows.size(); i++) {
+            List<String> row = rows.get(i);
+            if (column < row.size() && !row.get(column).isBlank()) {
+                topics.add(row.get(column).trim());
+            }
+        }
+        return topics;
+    }
+
+    private static List<List<String>> parseCsvRows(String text) {
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = text.length();
+        // 跳过UTF-8 BOM
+        int i = length > 0 && text.charAt(0) == '\uFEFF' ? 1 : 0;
+
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < length && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                row.add(field.toString());
+                field.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (field.length() > 0 || !row.isEmpty()) {
+            row.add(field.toString());
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,247 @@
+package com.xhs.utils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按Key限流的任务执行器
+ * 适合网络/浏览器等I/O密集型任务：默认每个任务一个虚拟线程，并用每个Key一个信号量限制并发
+ * （如每个AI服务商、每个浏览器环境），同时统计排队中与执行中的任务数量
+ */
+public class KeyedTaskExecutor implements MeterBinder, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(KeyedTaskExecutor.class);
+
+    private final String name;
+    private final ExecutorService executorService;
+    private final int permitsPerKey;
+    private final Duration shutdownTimeout;
+    // Key → 并发许可；没有等待或执行中的任务时移除，避免按任务ID等临时Key无限增长
+    private final Map<String, KeyPermits> semaphores = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    // 单个Key的信号量及引用计数（等待中 + 执行中的任务数），引用计数只在 Map.compute 中修改
+    private static final class KeyPermits {
+        private final Semaphore semaphore;
+        private int references;
+
+        private KeyPermits(int permits) {
+            this.semaphore = new Semaphore(permits, true);
+        }
+    }
+
+    /**
+     * @param name 执行器名称，用于线程名与监控指标
+     * @param virtualThreads 是否使用虚拟线程
+     * @param platformPoolSize 不使用虚拟线程时的线程池大小
+     * @param permitsPerKey 每个Key允许的最大并发数
+     * @param shutdownTimeout 关闭时等待任务完成的时间
+     */
+    public KeyedTaskExecutor(String name, boolean virtualThreads, int platformPoolSize, int permitsPerKey, Duration shutdownTimeout) {
+        if (permitsPerKey <= 0) {
+            throw new IllegalArgumentException("permitsPerKey必须大于0");
+        }
+        this.name = name;
+        this.permitsPerKey = permitsPerKey;
+        this.shutdownTimeout = shutdownTimeout;
+        this.executorService = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory())
+                : Executors.newFixedThreadPool(platformPoolSize, Thread.ofPlatform().name(name + "-", 0).factory());
+        logger.info("任务执行器 {} 已创建, 虚拟线程: {}, 每Key并发上限: {}", name, virtualThreads, permitsPerKey);
+    }
+
+    /**
+     * 异步执行任务
+     * @param key 限流Key
+     * @param task 任务
+     * @return 任务结果
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicBoolean dequeued = new AtomicBoolean();
+        queued.incrementAndGet();
+        try {
+            Future<?> running = executorService.submit(() -> {
+                try {
+                    future.complete(callWithPermit(key, task, dequeued));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            cancelOnCancel(future, running);
+            // 开始执行前被取消（或未能开始执行）时任务不会再离开队列，在此扣减排队数
+            future.whenComplete((result, error) -> leaveQueue(dequeued));
+        } catch (RejectedExecutionException e) {
+            leaveQueue(dequeued);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 异步执行编排型任务，不占用任何Key的并发许可
+     * 任务内部的I/O调用应自行通过 {@link #execute(String, Callable)} 获取许可，避免同一Key重复占用许可导致死锁
+     * @param task 任务
+     * @return 任务结果
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            Future<?> running = executorService.submit(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            cancelOnCancel(future, running);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // 返回的 CompletableFuture 被取消时中断执行中的任务（CompletableFuture.cancel 本身不会中断线程）
+    private static void cancelOnCancel(CompletableFuture<?> future, Future<?> running) {
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * 在当前线程中执行任务，同样受Key并发上限约束
+     * @param key 限流Key
+     * @param task 任务
+     * @return 任务结果
+     */
+    public <T> T execute(String key, Callable<T> task) throws Exception {
+        queued.incrementAndGet();
+        return callWithPermit(key, task, new AtomicBoolean());
+    }
+
+    // 任务离开排队状态，每个任务只扣减一次
+    private void leaveQueue(AtomicBoolean dequeued) {
+        if (dequeued.compareAndSet(false, true)) {
+            queued.decrementAndGet();
+        }
+    }
+
+    private <T> T callWithPermit(String key, Callable<T> task, AtomicBoolean dequeued) throws Exception {
+        KeyPermits permits = semaphores.compute(key, (k, existing) -> {
+            KeyPermits holder = existing != null ? existing : new KeyPermits(permitsPerKey);
+            holder.references++;
+            return holder;
+        });
+        try {
+            try {
+                permits.semaphore.acquire();
+            } finally {
+                leaveQueue(dequeued);
+            }
+            running.incrementAndGet();
+            try {
+                T result = task.call();
+                completed.incrementAndGet();
+                return result;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                throw e;
+            } finally {
+                running.decrementAndGet();
+                permits.semaphore.release();
+            }
+        } finally {
+            // 最后一个使用者离开时移除该Key
+            semaphores.computeIfPresent(key, (k, holder) -> --holder.references == 0 ? null : holder);
+        }
+    }
+
+    /**
+     * 获取执行器统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("queued", queued.get());
+        stats.put("running", running.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("keys", semaphores.size());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("xhs.executor.tasks", queued, AtomicInteger::get)
+                .tag("executor", name).tag("state", "queued")
+                .description("等待并发许可的任务数").register(registry);
+        Gauge.builder("xhs.executor.tasks", running, AtomicInteger::get)
+                .tag("executor", name).tag("state", "running")
+                .description("执行中的任务数").register(registry);
+        Gauge.builder("xhs.executor.completed", completed, AtomicLong::get)
+                .tag("executor", name).register(registry);
+        Gauge.builder("xhs.executor.failed", failed, AtomicLong::get)
+                .tag("executor", name).register(registry);
+    }
+
+    /**
+     * 关闭执行器：不再接收新任务，等待已提交任务完成，超时后中断
+     * @param timeout 等待时间
+     */
+    public void shutdown(Duration timeout) {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("任务执行器 {} 关闭超时, 中断剩余 {} 个任务", name, running.get() + queued.get());
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("任务执行器 {} 已关闭", name);
+    }
+
+    /**
+     * 应用关闭时由Spring调用
+     */
+    @Override
+    public void close() {
+        if (!executorService.isShutdown()) {
+            shutdown(shutdownTimeout);
+        }
+    }
+
+    public boolean isShutdown() {
+        return executorService.isShutdown();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -1,78 +1,247 @@
 package com.xhs.utils;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.Frame;
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.TimeoutError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 /**
  * 发布状态监控器
  * 负责监控发布后的状态（成功、失败、待审核等）
+ * 以发布接口的响应为准：解析响应中的结果和笔记ID；没有收到接口响应或响应无法识别时，再参考页面跳转和成功/失败提示
  */
 @Component
 public class PublishStatusMonitor {
     private static final Logger logger = LoggerFactory.getLogger(PublishStatusMonitor.class);
     
     private final SelectorManager selectorManager;
+    private final AutomationConfig automationConfig;
+    private final ObjectMapper objectMapper = new ObjectMapper();
     
     public enum PublishStatus {
         SUCCESS,
         FAILED,
         UNKNOWN
     }
+
+    /**
+     * 发布结果
+     * @param status 发布状态
+     * @param noteId 发布接口返回的笔记ID，未取得时为null
+     * @param message 失败原因或接口返回的提示信息
+     */
+    public record PublishResult(PublishStatus status, String noteId, String message) {
+
+        static PublishResult of(PublishStatus status, String message) {
+            return new PublishResult(status, null, message);
+        }
+    }
+
+    /**
+     * 发布监听：在点击发布之前开始监听，避免遗漏点击后立即返回的接口响应
+     */
+    public static final class PublishWatch implements AutoCloseable {
+        private final Page page;
+        private final AtomicReference<Response> publishResponse = new AtomicReference<>();
+        private final AtomicReference<String> navigatedUrl = new AtomicReference<>();
+        // 接口响应已解析（无法识别时不再重复解析）
+        private boolean responseParsed;
+        private final Consumer<Response> onResponse;
+        private final Consumer<Frame> onNavigated;
+
+        private PublishWatch(Page page, AutomationConfig automationConfig) {
+            this.page = page;
+            this.onResponse = response -> {
+                if ("POST".equals(response.request().method())
+                        && AutomationConfig.matches(response.url(), automationConfig.getPublishResponsePatterns())) {
+                    publishResponse.compareAndSet(null, response);
+                }
+            };
+            this.onNavigated = frame -> {
+                if (frame == page.mainFrame() && AutomationConfig.matches(frame.url(), automationConfig.getSuccessUrlPatterns())) {
+                    navigatedUrl.compareAndSet(null, frame.url());
+                }
+            };
+            page.onResponse(onResponse);
+            page.onFrameNavigated(onNavigated);
+        }
+
+        public Page getPage() {
+            return page;
+        }
+
+        @Override
+        public void close() {
+            page.offResponse(onResponse);
+            page.offFrameNavigated(onNavigated);
+        }
+    }
     
     @Autowired
-    public PublishStatusMonitor(SelectorManager selectorManager) {
+    public PublishStatusMonitor(SelectorManager selectorManager, AutomationConfig automationConfig) {
         this.selectorManager = selectorManager;
+        this.automationConfig = automationConfig;
+    }
+
+    /**
+     * 开始监听发布接口响应和页面跳转，应在点击发布按钮之前调用
+     * @param page Playwright Page对象
+     * @return 发布监听，使用完毕后关闭
+     */
+    public PublishWatch watch(Page page) {
+        return new PublishWatch(page, automationConfig);
     }
     
     /**
-     * 等待发布完成并返回状态
+     * 等待发布完成并返回状态（从现在开始监听，可能遗漏已经返回的接口响应）
      * @param page Playwright Page对象
      * @param timeoutMs 超时时间(毫秒)
-     * @return 发布状态
+     * @return 发布结果
      */
-    public PublishStatus waitForPublishComplete(Page page, int timeoutMs) {
+    public PublishResult waitForPublishComplete(Page page, int timeoutMs) {
+        try (PublishWatch watch = watch(page)) {
+            return waitForPublishComplete(watch, timeoutMs);
+        }
+    }
+
+    /**
+     * 等待发布完成并返回结果
+     * 以发布接口响应为准，一直等到超时；页面跳转和成功/失败提示只在没有收到接口响应或响应无法识别时作为后备判断
+     * @param watch 点击发布前开始的监听
+     * @param timeoutMs 超时时间(毫秒)
+     * @return 发布结果
+     */
+    public PublishResult waitForPublishComplete(PublishWatch watch, int timeoutMs) {
         logger.info("开始监控发布状态...");
-        long startTime = System.currentTimeMillis();
-        
-        while (System.currentTimeMillis() - startTime < timeoutMs) {
-            try {
-                // 1. 检查成功标志
-                // 检查是否有成功提示消息
-                Locator successMsg = selectorManager.findElement(page, "monitor", "successMessage");
-                // 注意：findElement可能会返回一个不存在的locator，所以要检查isVisible
-                if (successMsg.isVisible()) {
-                    logger.info("检测到发布成功提示");
-                    return PublishStatus.SUCCESS;
+        Page page = watch.getPage();
+        Locator successMsg = selectorManager.anyOf(page, "monitor", "successMessage");
+        Locator errorMsg = selectorManager.anyOf(page, "monitor", "errorMessage");
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        PublishResult pageSignal = null;
+        try {
+            while (true) {
+                // 1. 发布接口响应
+                Response response = watch.publishResponse.get();
+                if (response != null && !watch.responseParsed) {
+                    watch.responseParsed = true;
+                    PublishResult result = parseResponse(response);
+                    if (result != null) {
+                        return result;
+                    }
+                    logger.warn("发布接口响应无法识别, 改用页面信号判断");
+                }
+
+                // 2. 页面信号（跳转、成功/失败提示），先记录下来继续等待接口响应
+                if (pageSignal == null) {
+                    pageSignal = checkPageSignal(watch, successMsg, errorMsg);
+                }
+                // 接口响应已收到但无法识别，不会再有响应，直接采用页面信号
+                if (pageSignal != null && watch.responseParsed) {
+                    return fallback(pageSignal);
+                }
+
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    if (pageSignal != null) {
+                        logger.warn("等待发布接口响应超时, 改用页面信号判断");
+                        return fallback(pageSignal);
+                    }
+                    logger.warn("发布状态监控超时");
+                    return PublishResult.of(PublishStatus.UNKNOWN, "无法确认发布状态");
                 }
-                
-                // 检查URL是否发生变化（例如跳转到管理页）
-                // 这一步比较依赖具体的跳转逻辑，可以根据实际情况调整
-                 if (page.url().contains("/manage") || page.url().contains("/home")) {
-                     logger.info("检测到页面跳转，可能发布成功");
-                     return PublishStatus.SUCCESS;
-                 }
-                
-                // 2. 检查失败标志
-                Locator errorMsg = selectorManager.findElement(page, "monitor", "errorMessage");
-                if (errorMsg.isVisible()) {
-                    String errorText = errorMsg.textContent();
-                    logger.error("检测到发布失败提示: {}", errorText);
-                    return PublishStatus.FAILED;
+                // 等待接口响应，最长一个检查间隔
+                try {
+                    page.waitForCondition(() -> watch.publishResponse.get() != null && !watch.responseParsed,
+                            new Page.WaitForConditionOptions().setTimeout(Math.min(remaining, automationConfig.getPublishCheckIntervalMs())));
+                } catch (TimeoutError e) {
+                    // 本次检查间隔内没有接口响应，继续检查页面信号
                 }
-                
-                // 等待一下再检查
-                page.waitForTimeout(1000);
-                
-            } catch (Exception e) {
-                logger.debug("监控状态时发生异常 (可忽略)", e);
+            }
+        } catch (Exception e) {
+            logger.warn("监控发布状态时发生异常: {}", e.getMessage());
+            return PublishResult.of(PublishStatus.UNKNOWN, "无法确认发布状态: " + e.getMessage());
+        }
+    }
+
+    // 检查页面跳转（例如跳转到管理页）和成功/失败提示，没有信号时返回null
+    private PublishResult checkPageSignal(PublishWatch watch, Locator successMsg, Locator errorMsg) {
+        Page page = watch.getPage();
+        if (watch.navigatedUrl.get() != null || AutomationConfig.matches(page.url(), automationConfig.getSuccessUrlPatterns())) {
+            logger.info("检测到页面跳转，可能发布成功");
+            return PublishResult.of(PublishStatus.SUCCESS, null);
+        }
+        if (successMsg.isVisible()) {
+            logger.info("检测到发布成功提示");
+            return PublishResult.of(PublishStatus.SUCCESS, null);
+        }
+        if (errorMsg.isVisible()) {
+            String errorText = errorMsg.textContent();
+            logger.warn("检测到发布失败提示: {}", errorText);
+            return PublishResult.of(PublishStatus.FAILED, errorText);
+        }
+        return null;
+    }
+
+    // 采用页面信号作为发布结果，此时笔记ID未知
+    private PublishResult fallback(PublishResult pageSignal) {
+        logger.warn("未取得可识别的发布接口响应, 按页面信号判断发布{}, 笔记ID未知",
+                pageSignal.status() == PublishStatus.SUCCESS ? "成功" : "失败");
+        return pageSignal;
+    }
+
+    /**
+     * 解析发布接口响应
+     * @return 发布结果；响应不是可识别的JSON时返回null，改用页面信号判断
+     */
+    private PublishResult parseResponse(Response response) {
+        if (response.status() >= 400) {
+            logger.error("发布接口返回错误状态: {} {}", response.status(), response.url());
+            return PublishResult.of(PublishStatus.FAILED, "发布接口返回错误状态: " + response.status());
+        }
+        JsonNode body;
+        try {
+            body = objectMapper.readTree(response.text());
+        } catch (Exception e) {
+            logger.warn("无法解析发布接口响应: {}", e.getMessage());
+            return null;
+        }
+        if (body == null || !body.isObject()) {
+            return null;
+        }
+
+        String message = body.hasNonNull("msg") ? body.get("msg").asText() : body.path("message").asText(null);
+        boolean success;
+        if (body.has("success")) {
+            success = body.get("success").asBoolean();
+        } else if (body.has("code")) {
+            success = body.get("code").asInt(-1) == 0;
+        } else {
+            return null;
+        }
+        if (!success) {
+            logger.error("发布接口返回失败: {}", message);
+            return PublishResult.of(PublishStatus.FAILED, message != null ? message : "发布接口返回失败");
+        }
+
+        String noteId = null;
+        for (String field : automationConfig.getNoteIdFields()) {
+            JsonNode value = body.at(field);
+            if (!value.isMissingNode() && !value.isNull() && !value.asText().isEmpty()) {
+                noteId = value.asText();
+                break;
             }
         }
-        
-        logger.warn("发布状态监控超时");
-        return PublishStatus.UNKNOWN;
+        logger.info("发布接口确认发布成功, 笔记ID: {}", noteId);
+        return new PublishResult(PublishStatus.SUCCESS, noteId, message);
     }
 }
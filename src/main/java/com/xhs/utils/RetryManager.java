@@ -4,47 +4,124 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
  * 重试管理器
- * 提供通用的重试逻辑
+ * 根据重试策略决定失败后是否重试以及等待多久；调度型任务应按返回的等待时间重新调度，而不是阻塞线程等待
  */
 @Component
 public class RetryManager {
     private static final Logger logger = LoggerFactory.getLogger(RetryManager.class);
 
     /**
-     * 执行带重试的操作
+     * 重试决定
+     * @param retry 是否重试
+     * @param delay 重试前的等待时间，不重试时为null
+     * @param reason 不重试的原因，重试时为null
+     */
+    public record RetryDecision(boolean retry, Duration delay, String reason) {
+
+        static RetryDecision retryAfter(Duration delay) {
+            return new RetryDecision(true, delay, null);
+        }
+
+        static RetryDecision giveUp(String reason) {
+            return new RetryDecision(false, null, reason);
+        }
+    }
+
+    // 策略名称 → 时间窗口内的重试时间戳（毫秒）
+    private final Map<String, Deque<Long>> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * 决定失败后是否重试
+     * @param policy 重试策略
+     * @param error 本次失败的错误
+     * @param attempt 已尝试的次数（含本次），从1开始
+     * @return 重试决定；同意重试时占用一次重试预算
+     */
+    public RetryDecision decide(RetryPolicy policy, Throwable error, int attempt) {
+        if (!policy.isRetryable(error)) {
+            return RetryDecision.giveUp("不可重试的错误");
+        }
+        if (attempt >= policy.getMaxAttempts()) {
+            return RetryDecision.giveUp("已达到最大尝试次数 " + policy.getMaxAttempts());
+        }
+        if (!acquireBudget(policy)) {
+            logger.warn("重试预算已用尽, 策略: {}, 窗口内上限: {}", policy.getName(), policy.getBudgetPerWindow());
+            return RetryDecision.giveUp("重试预算已用尽");
+        }
+        return RetryDecision.retryAfter(policy.backoff(attempt));
+    }
+
+    /**
+     * 在当前线程中执行带重试的操作（会阻塞等待，仅适合短时间的同步调用）
      * @param operation 要执行的操作
-     * @param maxRetries 最大重试次数
-     * @param delayMs 重试间隔(毫秒)
+     * @param policy 重试策略
      * @param <T> 返回类型
      * @return 操作结果
      */
-    public <T> T executeWithRetry(Supplier<T> operation, int maxRetries, long delayMs) {
-        int attempt = 0;
-        Exception lastException = null;
-
-        while (attempt < maxRetries) {
+    public <T> T executeWithRetry(Supplier<T> operation, RetryPolicy policy) {
+        for (int attempt = 1; ; attempt++) {
             try {
                 return operation.get();
-            } catch (Exception e) {
-                attempt++;
-                lastException = e;
-                logger.warn("操作失败，第 {}/{} 次重试: {}", attempt, maxRetries, e.getMessage());
-                
-                if (attempt < maxRetries) {
-                    try {
-                        Thread.sleep(delayMs);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("重试被中断", ie);
-                    }
+            } catch (RuntimeException e) {
+                RetryDecision decision = decide(policy, e, attempt);
+                if (!decision.retry()) {
+                    throw new RuntimeException("操作在第 " + attempt + " 次尝试后失败: " + decision.reason(), e);
                 }
+                logger.warn("操作失败，{}ms 后进行第 {}/{} 次尝试: {}", decision.delay().toMillis(), attempt + 1,
+                        policy.getMaxAttempts(), e.getMessage());
+                try {
+                    Thread.sleep(decision.delay());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("重试被中断", ie);
+                }
+            }
+        }
+    }
+
+    /**
+     * 执行带重试的操作
+     * @param operation 要执行的操作
+     * @param maxRetries 最大尝试次数
+     * @param delayMs 首次重试的等待时间(毫秒)，之后按指数退避
+     * @param <T> 返回类型
+     * @return 操作结果
+     */
+    public <T> T executeWithRetry(Supplier<T> operation, int maxRetries, long delayMs) {
+        RetryPolicy policy = new RetryPolicy("default", maxRetries, Duration.ofMillis(delayMs), Duration.ofMillis(delayMs * 16),
+                List.of(), List.of(), 0, Duration.ZERO);
+        return executeWithRetry(operation, policy);
+    }
+
+    /**
+     * 占用一次重试预算（滑动时间窗口）
+     */
+    private boolean acquireBudget(RetryPolicy policy) {
+        if (policy.getBudgetPerWindow() <= 0) {
+            return true;
+        }
+        Deque<Long> timestamps = budgets.computeIfAbsent(policy.getName(), k -> new ArrayDeque<>());
+        long now = System.currentTimeMillis();
+        long windowStart = now - policy.getBudgetWindow().toMillis();
+        synchronized (timestamps) {
+            while (!timestamps.isEmpty() && timestamps.peekFirst() < windowStart) {
+                timestamps.pollFirst();
+            }
+            if (timestamps.size() >= policy.getBudgetPerWindow()) {
+                return false;
             }
+            timestamps.addLast(now);
+            return true;
         }
-        
-        throw new RuntimeException("操作在 " + maxRetries + " 次尝试后失败", lastException);
     }
 }
@@ -0,0 +1,100 @@
+package com.xhs.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 重试策略
+ * 指数退避 + 随机抖动，按异常类型和错误信息区分可重试错误与致命错误，并带有按时间窗口计算的重试预算
+ */
+public class RetryPolicy {
+
+    private final String name;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final List<Class<? extends Throwable>> fatalTypes;
+    private final List<String> fatalMessages;
+    private final int budgetPerWindow;
+    private final Duration budgetWindow;
+
+    /**
+     * @param name 策略名称，同名策略共享重试预算
+     * @param maxAttempts 最大尝试次数（含首次）
+     * @param baseDelay 首次重试的基础等待时间，之后每次翻倍
+     * @param maxDelay 等待时间上限
+     * @param fatalTypes 视为致命错误的异常类型（含子类）
+     * @param fatalMessages 错误信息包含其中任一关键字时视为致命错误
+     * @param budgetPerWindow 每个时间窗口内允许的重试次数，小于等于0表示不限制
+     * @param budgetWindow 重试预算的时间窗口
+     */
+    public RetryPolicy(String name, int maxAttempts, Duration baseDelay, Duration maxDelay,
+                       List<Class<? extends Throwable>> fatalTypes, List<String> fatalMessages,
+                       int budgetPerWindow, Duration budgetWindow) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts必须大于0");
+        }
+        this.name = name;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.fatalTypes = List.copyOf(fatalTypes);
+        this.fatalMessages = fatalMessages.stream().map(String::trim).filter(message -> !message.isEmpty()).toList();
+        this.budgetPerWindow = budgetPerWindow;
+        this.budgetWindow = budgetWindow;
+    }
+
+    /**
+     * 错误是否可重试：异常链中任一异常为致命类型或错误信息包含致命关键字时不重试
+     * @param error 错误
+     * @return 是否可重试
+     */
+    public boolean isRetryable(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause() == current ? null : current.getCause()) {
+            for (Class<? extends Throwable> fatalType : fatalTypes) {
+                if (fatalType.isInstance(current)) {
+                    return false;
+                }
+            }
+            String message = current.getMessage();
+            if (message != null) {
+                for (String fatalMessage : fatalMessages) {
+                    if (message.contains(fatalMessage)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 第N次失败后的等待时间：min(上限, 基础时间 * 2^(N-1))，取其一半加上随机的另一半，避免大量任务同时重试
+     * @param attempt 已失败的次数，从1开始
+     * @return 等待时间
+     */
+    public Duration backoff(int attempt) {
+        long baseMs = baseDelay.toMillis();
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        long delayMs = baseMs > (Long.MAX_VALUE >> shift) ? maxDelay.toMillis() : Math.min(maxDelay.toMillis(), baseMs << shift);
+        long half = delayMs / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(delayMs - half + 1));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public int getBudgetPerWindow() {
+        return budgetPerWindow;
+    }
+
+    public Duration getBudgetWindow() {
+        return budgetWindow;
+    }
+}
@@ -126,6 +126,29 @@ public class SelectorManager {
         return lastLocator != null ? lastLocator : page.locator("xpath=//element-not-found");
     }
 
+    /**
+     * 组合配置中的所有选择器，匹配其中任一选择器的元素
+     * 与 findElement 不同，不立即检查元素是否存在，适合配合 waitFor 等待元素出现
+     *
+     * @param page Playwright Page对象
+     * @param category 类别
+     * @param elementKey 元素键名
+     * @return 组合后的 Locator（取第一个匹配的元素）
+     */
+    public Locator anyOf(Page page, String category, String elementKey) {
+        JsonNode selectorList = getSelectorList(category, elementKey);
+        if (selectorList == null || selectorList.isEmpty()) {
+            return page.locator("xpath=//non-existent-element-for-" + elementKey);
+        }
+
+        Locator combined = null;
+        for (JsonNode selector : selectorList) {
+            Locator locator = page.locator(selector.asText());
+            combined = combined == null ? locator : combined.or(locator);
+        }
+        return combined.first();
+    }
+
     /**
      * 获取最佳选择器字符串
      */
@@ -0,0 +1,76 @@
+package com.xhs.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * SSE流式输出辅助类
+ * 将AI增量结果以 text/event-stream 推送给前端
+ * 事件：chunk（增量文本）、done（生成结束）、error（生成失败）
+ */
+public final class SseStreamHelper {
+    private static final Logger logger = LoggerFactory.getLogger(SseStreamHelper.class);
+
+    /**
+     * 流式连接超时时间
+     */
+    private static final long STREAM_TIMEOUT_MS = 5 * 60 * 1000L;
+
+    private SseStreamHelper() {
+    }
+
+    /**
+     * 启动流式生成并返回SseEmitter
+     * @param generation 接收增量回调、返回生成Future的函数
+     * @param errorPrefix 错误信息前缀
+     * @return SseEmitter
+     */
+    public static SseEmitter stream(Function<Consumer<String>, CompletableFuture<Void>> generation, String errorPrefix) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+
+        Consumer<String> onChunk = chunk -> {
+            try {
+                // 以JSON发送，避免文本中的换行破坏SSE格式
+                emitter.send(SseEmitter.event().name("chunk").data(Map.of("content", chunk), MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                // 客户端已断开，抛出异常以终止上游读取
+                throw new UncheckedIOException(e);
+            }
+        };
+
+        CompletableFuture<Void> future;
+        try {
+            future = generation.apply(onChunk);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    emitter.send(SseEmitter.event().name("done").data(Map.of("success", true), MediaType.APPLICATION_JSON));
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    logger.warn("{}: {}", errorPrefix, cause.getMessage());
+                    emitter.send(SseEmitter.event().name("error").data(Map.of("error", errorPrefix + ": " + cause.getMessage()), MediaType.APPLICATION_JSON));
+                }
+                emitter.complete();
+            } catch (Exception e) {
+                logger.debug("SSE连接已关闭", e);
+                emitter.completeWithError(e);
+            }
+        });
+
+        return emitter;
+    }
+}
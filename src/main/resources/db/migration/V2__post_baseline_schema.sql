@@ -0,0 +1,73 @@
+-- 基线之后新增的表结构：定时任务重试/租约/周期字段，周期任务执行记录，AI响应缓存，批量生成任务
+
+ALTER TABLE scheduled_tasks
+    ADD COLUMN recurrence_rule VARCHAR(100) AFTER scheduled_time,
+    ADD COLUMN recurrence_end_time DATETIME(6) AFTER recurrence_rule,
+    ADD COLUMN posting_window_start TIME AFTER recurrence_end_time,
+    ADD COLUMN posting_window_end TIME AFTER posting_window_start,
+    ADD COLUMN retry_count INT AFTER image_paths,
+    ADD COLUMN next_retry_time DATETIME(6) AFTER retry_count,
+    ADD COLUMN last_error VARCHAR(500) AFTER next_retry_time,
+    ADD COLUMN claimed_by VARCHAR(100) AFTER last_error,
+    ADD COLUMN claim_token VARCHAR(36) AFTER claimed_by,
+    ADD COLUMN lease_expires_at DATETIME(6) AFTER claim_token,
+    ADD COLUMN publish_started_at DATETIME(6) AFTER lease_expires_at;
+
+CREATE TABLE scheduled_task_occurrences (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    task_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    occurrence_time DATETIME(6) NOT NULL,
+    status VARCHAR(20),
+    executed_time DATETIME(6),
+    created_at DATETIME(6),
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_occurrence_task_time (task_id, occurrence_time),
+    KEY idx_occurrence_status_time (status, occurrence_time),
+    KEY idx_occurrence_user_time (user_id, occurrence_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE ai_response_cache (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cache_key VARCHAR(64) NOT NULL,
+    provider_type VARCHAR(50),
+    model VARCHAR(100),
+    response MEDIUMTEXT,
+    hit_count INT,
+    expires_at DATETIME(6),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_ai_response_cache_key (cache_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE batch_generation_jobs (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    provider_type VARCHAR(50),
+    image_type VARCHAR(20),
+    status VARCHAR(20),
+    total_count INT,
+    completed_count INT,
+    failed_count INT,
+    finished_at DATETIME(6),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE batch_generation_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    job_id BIGINT NOT NULL,
+    item_index INT,
+    topic TEXT,
+    status VARCHAR(20),
+    title VARCHAR(200),
+    content TEXT,
+    cache_hit BIT(1),
+    attempts INT,
+    error_message VARCHAR(500),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_batch_generation_items_job FOREIGN KEY (job_id) REFERENCES batch_generation_jobs (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
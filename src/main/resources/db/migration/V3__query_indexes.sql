@@ -0,0 +1,15 @@
+-- 定时任务与发布历史的查询索引
+
+-- 到期任务扫描、按状态统计：status = ? and scheduled_time <= ?
+CREATE INDEX idx_task_status_time ON scheduled_tasks (status, scheduled_time);
+-- 按用户和状态查询任务
+CREATE INDEX idx_task_user_status ON scheduled_tasks (user_id, status);
+-- 按领取凭证查找批量领取的任务
+CREATE INDEX idx_task_claim_token ON scheduled_tasks (claim_token);
+
+-- 按时间范围统计发布数量
+CREATE INDEX idx_history_created_at ON publish_history (created_at);
+-- 按用户和状态查询发布历史
+CREATE INDEX idx_history_user_status ON publish_history (user_id, status);
+-- 按用户和时间查询发布历史（核对中断任务的发布结果）
+CREATE INDEX idx_history_user_created_at ON publish_history (user_id, created_at);
@@ -0,0 +1,14 @@
+-- 发布统计汇总表（按天、按用户），由定时任务从 publish_history 刷新
+
+CREATE TABLE publish_daily_stats (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    stat_date DATE NOT NULL,
+    user_id BIGINT NOT NULL,
+    total_count INT,
+    success_count INT,
+    failed_count INT,
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_daily_stat_date_user (stat_date, user_id),
+    KEY idx_daily_stat_user (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,3 @@
+-- 发布记录增加发布阶段，发布流程按阶段分别提交状态
+
+ALTER TABLE publish_history ADD COLUMN stage VARCHAR(50) AFTER error_message;
@@ -0,0 +1,3 @@
+-- 发布记录增加发布接口返回的笔记ID
+
+ALTER TABLE publish_history ADD COLUMN note_id VARCHAR(64) AFTER stage;
@@ -0,0 +1,4 @@
+-- 发布记录增加来源定时任务ID，核对中断任务时按任务ID查找发布记录
+
+ALTER TABLE publish_history ADD COLUMN task_id BIGINT AFTER user_id;
+CREATE INDEX idx_history_task_created_at ON publish_history (task_id, created_at);
@@ -0,0 +1,8 @@
+-- 列表游标分页（按ID倒序）的索引：按用户或按状态过滤时直接按索引顺序读取，不再排序
+-- 同时按用户和状态过滤时使用 (user_id, status) 索引，InnoDB 二级索引末尾隐含主键ID
+
+CREATE INDEX idx_task_user_id ON scheduled_tasks (user_id, id);
+CREATE INDEX idx_task_status_id ON scheduled_tasks (status, id);
+
+CREATE INDEX idx_history_user_id ON publish_history (user_id, id);
+CREATE INDEX idx_history_status_id ON publish_history (status, id);